@@ -0,0 +1,103 @@
+package com.restaurantback.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurantback.dto.DishResponseDTO;
+import com.restaurantback.models.Booking;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the serialization paths replaced by JsonSerializer with its shared Blackbird writers, for
+ * the SQS booking payload and the dishes list response:
+ *
+ * - jsonObject: reflective org.json, as the SQS producers used to build message bodies
+ * - newMapper: a fresh ObjectMapper per call, as handlers that built their own did
+ * - plainMapper: one shared ObjectMapper without Blackbird, to separate reuse from Blackbird
+ * - blackbirdWriter: the pre-built ObjectWriter from JsonSerializer
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializerBenchmark {
+
+    private final ObjectMapper plainMapper = new ObjectMapper();
+
+    private Booking booking;
+
+    private Map<String, List<DishResponseDTO>> dishes;
+
+    @Setup
+    public void setUp() {
+        booking = new Booking();
+        booking.setReservationId("6f1c2d9e-3b4a-4f8e-9a61-0c2b7d5e8f13");
+        booking.setLocationId("location-1");
+        booking.setTableId("12");
+        booking.setDate("2024-05-01");
+        booking.setWaiterId("waiter-3");
+        booking.setTimeFrom("12:15");
+        booking.setTimeTo("13:45");
+        booking.setGuestsNumber("4");
+        booking.setUserEmail("alice@example.com");
+        booking.setByCustomer(true);
+        booking.setStatus("FINISHED");
+        booking.setFeedbackId("no_feedback");
+
+        List<DishResponseDTO> list = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            list.add(DishResponseDTO.builder()
+                    .id("dish-" + i)
+                    .name("Dish number " + i)
+                    .imageUrl("https://images.example.com/dishes/" + i + ".jpg")
+                    .price(String.valueOf(100 + i))
+                    .weight((200 + i) + "g")
+                    .state(i % 5 == 0 ? "On Stop" : "Available")
+                    .build());
+        }
+        dishes = Map.of("dishes", list);
+    }
+
+    @Benchmark
+    public String bookingJsonObject() {
+        return new JSONObject(booking).toString();
+    }
+
+    @Benchmark
+    public String bookingNewMapper() throws Exception {
+        return new ObjectMapper().writeValueAsString(booking);
+    }
+
+    @Benchmark
+    public String bookingPlainMapper() throws Exception {
+        return plainMapper.writeValueAsString(booking);
+    }
+
+    @Benchmark
+    public String bookingBlackbirdWriter() throws Exception {
+        return JsonSerializer.BOOKING.writeValueAsString(booking);
+    }
+
+    @Benchmark
+    public String dishesNewMapper() throws Exception {
+        return new ObjectMapper().writeValueAsString(dishes);
+    }
+
+    @Benchmark
+    public String dishesPlainMapper() throws Exception {
+        return plainMapper.writeValueAsString(dishes);
+    }
+
+    @Benchmark
+    public String dishesBlackbirdWriter() throws Exception {
+        return JsonSerializer.DISHES.writeValueAsString(dishes);
+    }
+}
@@ -4,7 +4,10 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.restaurantback.dto.RouteKey;
+import com.restaurantback.handlers.RouteDispatcher;
+import com.restaurantback.handlers.RouteTrie;
+import com.restaurantback.utils.ResponseCompressor;
+import com.restaurantback.utils.RouteMetrics;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
 import com.syndicate.deployment.annotations.lambda.LambdaHandler;
@@ -37,6 +40,8 @@ import java.util.Map;
 @DependsOn(resourceType = ResourceType.DYNAMODB_TABLE, name = "${booking_table}")
 @DependsOn(resourceType = ResourceType.DYNAMODB_TABLE, name = "${cart_table}")
 @DependsOn(resourceType = ResourceType.DYNAMODB_TABLE, name = "${waiter_table}")
+@DependsOn(resourceType = ResourceType.DYNAMODB_TABLE, name = "${idempotency_table}")
+@DependsOn(resourceType = ResourceType.DYNAMODB_TABLE, name = "${hold_table}")
 
 @EnvironmentVariables(value = {
         @EnvironmentVariable(key = "REGION", value = "${region}"),
@@ -53,59 +58,56 @@ import java.util.Map;
         @EnvironmentVariable(key = "cartTable", value = "${cart_table}"),
         @EnvironmentVariable(key = "employeeTable", value = "${employee_table}"),
         @EnvironmentVariable(key = "waiterTable", value = "${waiter_table}"),
+        @EnvironmentVariable(key = "idempotencyTable", value = "${idempotency_table}"),
+        @EnvironmentVariable(key = "holdTable", value = "${hold_table}"),
         @EnvironmentVariable(key = "profileImageBucket", value = "${profile_image_bucket}"),
         @EnvironmentVariable(key = "reportQueue", value = "${report_sqs_queue}"),
 })
 
 public class ApiHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private static volatile boolean coldStart = true;
+
     private final Application daggerContext = DaggerApplication.create();
-    private final Map<RouteKey, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> handlersByRouteKey = daggerContext.getHandlersByRouteKey();
+    private final RouteDispatcher routeDispatcher = daggerContext.getRouteDispatcher();
     private final Map<String, String> headersForCORS = daggerContext.getCorsHeaders();
+    private final RouteMetrics routeMetrics = daggerContext.getRouteMetrics();
 
     public ApiHandler() {
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
-
-        APIGatewayProxyResponseEvent response = getHandler(request)
-                .handleRequest(request, context);
-
-        if (response.getHeaders() == null) {
-            return response.withHeaders(headersForCORS);
+        long startedAt = System.nanoTime();
+        boolean cold = coldStart;
+        coldStart = false;
+
+        RouteTrie.Match match = routeDispatcher.match(request);
+        String route = match == null ? UNMATCHED_ROUTE : match.getRouteKey().getMethod() + " " + match.getRouteKey().getPath();
+        Integer statusCode = null;
+
+        try {
+            APIGatewayProxyResponseEvent response = dispatch(match, request, context);
+            statusCode = response.getStatusCode();
+            return response;
+        } finally {
+            routeMetrics.record(route, statusCode, cold, System.nanoTime() - startedAt);
+            routeMetrics.flush();
         }
-
-        Map<String, String> mergedHeaders = new HashMap<>(response.getHeaders());
-        mergedHeaders.putAll(headersForCORS);
-
-        return response.withHeaders(mergedHeaders);
     }
 
-    /**
-     * Get RouteKey based on HTTP method and path
-     */
-    private RouteKey getRouteKey(APIGatewayProxyRequestEvent requestEvent) {
-        return new RouteKey(requestEvent.getHttpMethod(), requestEvent.getPath());
-    }
-
-//    some changes need to be done
-
-    private RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> getHandler(APIGatewayProxyRequestEvent requestEvent) {
-//        return handlersByRouteKey.get(getRouteKey(requestEvent));
-        String incomingMethod = requestEvent.getHttpMethod();
-        String incomingPath = requestEvent.getPath();
+    private APIGatewayProxyResponseEvent dispatch(RouteTrie.Match match, APIGatewayProxyRequestEvent request, Context context) {
+        APIGatewayProxyResponseEvent response = routeDispatcher.dispatch(match, request, context);
 
-        System.out.println(incomingMethod + incomingPath);
-
-        for (RouteKey routeKey : handlersByRouteKey.keySet()) {
-            if (routeKey.matches(incomingMethod, incomingPath)) {
-                Map<String, String> pathVariables = routeKey.extractPathVariables(incomingPath);
-                requestEvent.setPathParameters(pathVariables);
-                RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> f = handlersByRouteKey.get(routeKey);
-                System.out.println(f);
-                return f;
-            }
+        if (response.getHeaders() == null) {
+            response.withHeaders(headersForCORS);
+        } else {
+            Map<String, String> mergedHeaders = new HashMap<>(response.getHeaders());
+            mergedHeaders.putAll(headersForCORS);
+            response.withHeaders(mergedHeaders);
         }
-        return handlersByRouteKey.get(getRouteKey(requestEvent));
+
+        return ResponseCompressor.compress(request, response);
     }
-}
\ No newline at end of file
+}
@@ -5,8 +5,12 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.restaurantback.dto.RouteKey;
 import com.restaurantback.handlers.HandlersModule;
+import com.restaurantback.handlers.RouteDispatcher;
+import com.restaurantback.handlers.RouteNotImplementedService;
+import com.restaurantback.handlers.RouteTrie;
 import com.restaurantback.repository.RepositoryModule;
 import com.restaurantback.services.ServiceModule;
+import com.restaurantback.utils.RouteMetrics;
 import com.restaurantback.utils.UtilsModule;
 import dagger.Component;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
@@ -30,5 +34,17 @@ public interface Application {
     @Named("routeMap")
     Map<RouteKey, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> getHandlersByRouteKey();
 
+    @Named("routeTrie")
+    RouteTrie getRouteTrie();
+
+    @Named("routeNotImplementedHandler")
+    RouteNotImplementedService getRouteNotImplementedHandler();
+
+    @Named("routeMetrics")
+    RouteMetrics getRouteMetrics();
+
+    @Named("routeDispatcher")
+    RouteDispatcher getRouteDispatcher();
+
 }
 
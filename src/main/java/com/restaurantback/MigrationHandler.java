@@ -0,0 +1,68 @@
+package com.restaurantback;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.restaurantback.repository.BookingRepository;
+import com.restaurantback.repository.TableRepository;
+import com.restaurantback.repository.WaiterRepository;
+import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
+import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
+import com.syndicate.deployment.annotations.lambda.LambdaHandler;
+import com.syndicate.deployment.model.DeploymentRuntime;
+import com.syndicate.deployment.model.RetentionSetting;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One-off data migration, invoked by hand after a deploy rather than on a schedule: rewrites booked
+ * slots still stored as per-date lists and gives bookings written before the agenda and end time
+ * indexes their keys. Both steps scan whole tables, but skip what is already migrated, so running
+ * the handler again is safe.
+ */
+@LambdaHandler(
+        lambdaName = "migration_handler",
+        roleName = "migration_handler-role",
+        isPublishVersion = true,
+        aliasName = "${lambdas_alias_name}",
+        logsExpiration = RetentionSetting.SYNDICATE_ALIASES_SPECIFIED,
+        runtime = DeploymentRuntime.JAVA21
+)
+
+@EnvironmentVariables(value = {
+        @EnvironmentVariable(key = "bookingTable", value = "${booking_table}"),
+        @EnvironmentVariable(key = "tablesTable", value = "${tables_table}"),
+        @EnvironmentVariable(key = "waiterTable", value = "${waiter_table}")
+})
+
+public class MigrationHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    private final SQSApplication sqsApplication = DaggerSQSApplication.create();
+
+    private final BookingRepository bookingRepository = sqsApplication.getBookingRepository();
+    private final TableRepository tableRepository = sqsApplication.getTableRepository();
+    private final WaiterRepository waiterRepository = sqsApplication.getWaiterRepository();
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> request, Context context) {
+        Map<String, Object> resultMap = new HashMap<>();
+        try {
+            int tables = tableRepository.migrateBookedSlots();
+            int waiters = waiterRepository.migrateBookedSlots();
+            context.getLogger().log("Migrated booked slots of " + tables + " tables and " + waiters + " waiters");
+
+            int bookings = bookingRepository.backfillIndexKeys();
+            context.getLogger().log("Backfilled the index keys of " + bookings + " bookings");
+
+            resultMap.put("statusCode", 200);
+            resultMap.put("tables", tables);
+            resultMap.put("waiters", waiters);
+            resultMap.put("bookings", bookings);
+        } catch (Exception e) {
+            context.getLogger().log("Migration failed: " + e);
+            resultMap.put("statusCode", 500);
+            resultMap.put("message", "Migration failed: " + e.getMessage());
+        }
+        return resultMap;
+    }
+}
@@ -4,12 +4,14 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.restaurantback.dto.report.FeedbackUpdate;
 import com.restaurantback.models.*;
+import com.restaurantback.repository.BookingRepository;
 import com.restaurantback.repository.EmployeeRepository;
 import com.restaurantback.repository.WaiterRepository;
 import com.restaurantback.services.FeedbackService;
+import com.restaurantback.utils.JsonSerializer;
+import com.restaurantback.utils.TimeOfDay;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
 import com.syndicate.deployment.annotations.events.SqsTriggerEventSource;
@@ -24,8 +26,6 @@ import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
 import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
-import java.time.Duration;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -66,7 +66,6 @@ public class ReportsHandler implements RequestHandler<SQSEvent, Map<String, Obje
 
     private final SQSApplication sqsApplication = DaggerSQSApplication.create();
 
-    private final ObjectMapper objectMapper = sqsApplication.getObjectMapper();
     private final DynamoDbEnhancedClient dynamoDbEnhancedClient = sqsApplication.getDyaDynamoDbEnhancedClient();
 
     private final String waiterReportTableName = System.getenv("waiterReportTable");
@@ -78,6 +77,7 @@ public class ReportsHandler implements RequestHandler<SQSEvent, Map<String, Obje
     private final DynamoDbTable<Booking> bookingDynamoDbTable = dynamoDbEnhancedClient.table(bookingTableName, TableSchema.fromBean(Booking.class));
 
     private final EmployeeRepository employeeRepository = sqsApplication.getEmployeeRepository();
+    private final BookingRepository bookingRepository = sqsApplication.getBookingRepository();
     private final WaiterRepository waiterRepository = sqsApplication.getWaiterRepository();
     private final FeedbackService feedbackService = sqsApplication.getFeedbackService();
 
@@ -133,13 +133,13 @@ public class ReportsHandler implements RequestHandler<SQSEvent, Map<String, Obje
 
         try {
 
-            Feedback newFeedback = objectMapper.readValue(body, Feedback.class);
+            Feedback newFeedback = JsonSerializer.FEEDBACK_READER.readValue(body);
 
             if (newFeedback == null) {
                 throw new RuntimeException("New feedback is null");
             }
 
-            Booking booking = getBookingById(newFeedback.getId());
+            Booking booking = getBookingForFeedback(newFeedback);
             System.out.println(booking);
 
             WaiterReport waiterReport = getWaiterReport(booking.getDate(), booking.getWaiterId());
@@ -212,7 +212,7 @@ public class ReportsHandler implements RequestHandler<SQSEvent, Map<String, Obje
         // by feedback id and res id get the reservation
         // get location report and waiter update the feedback accordingly
         try {
-            FeedbackUpdate feedbackUpdate = objectMapper.readValue(body, FeedbackUpdate.class);
+            FeedbackUpdate feedbackUpdate = JsonSerializer.FEEDBACK_UPDATE_READER.readValue(body);
 
             if (feedbackUpdate == null) {
                 throw new RuntimeException("Feedback update dto is null");
@@ -223,7 +223,7 @@ public class ReportsHandler implements RequestHandler<SQSEvent, Map<String, Obje
             System.out.println(prevFeedback);
             System.out.println(newFeedback);
 
-            Booking booking = getBookingById(prevFeedback.getId());
+            Booking booking = getBookingForFeedback(prevFeedback);
             System.out.println(booking);
 
             WaiterReport waiterReport = getWaiterReport(booking.getDate(), booking.getWaiterId());
@@ -342,6 +342,23 @@ public class ReportsHandler implements RequestHandler<SQSEvent, Map<String, Obje
         }
     }
 
+    /**
+     * The reservation the feedback is about. Feedback carries the reservation id (resID), which is
+     * the booking's partition key, so this is a single keyed read; only feedback stored without it
+     * falls back to scanning for the booking's feedbackId.
+     */
+    private Booking getBookingForFeedback(Feedback feedback) {
+        if (feedback.getResID() != null && !feedback.getResID().isBlank()) {
+            Booking booking = bookingRepository.findBookingById(feedback.getResID());
+            if (booking == null) {
+                throw new RuntimeException("Booking with this reservation id doesn't exist");
+            }
+            return booking;
+        }
+        context.getLogger().log("Feedback " + feedback.getId() + " has no reservation id, scanning bookings");
+        return getBookingById(feedback.getId());
+    }
+
     private Booking getBookingById(String feedbackId) {
         Expression filterExpression = Expression.builder()
                 .expression("feedbackId = :feedbackIdValue")
@@ -366,7 +383,7 @@ public class ReportsHandler implements RequestHandler<SQSEvent, Map<String, Obje
         try {
             context.getLogger().log("Processing daily event...");
 
-            Booking booking = objectMapper.readValue(body, Booking.class);
+            Booking booking = JsonSerializer.BOOKING_READER.readValue(body);
             context.getLogger().log("Booking: " + booking.toString());
 
             String waiterId = booking.getWaiterId();
@@ -516,13 +533,10 @@ public class ReportsHandler implements RequestHandler<SQSEvent, Map<String, Obje
     }
 
     private float calculateHours(String timeFrom, String timeTo) {
-        LocalTime from = LocalTime.parse(timeFrom);
-        LocalTime to = LocalTime.parse(timeTo);
+        int minutes = TimeOfDay.parse(timeTo) - TimeOfDay.parse(timeFrom);
+        context.getLogger().log(String.valueOf(minutes / 60));
 
-        Duration duration = Duration.between(from, to);
-        context.getLogger().log(String.valueOf(duration.toHours()));
-
-        return duration.toMinutes() / 60.0f;
+        return minutes / 60.0f;
     }
 
     private String getTimeSlot(String timeFrom, String timeTo) {
@@ -547,13 +561,10 @@ public class ReportsHandler implements RequestHandler<SQSEvent, Map<String, Obje
         waiterReport.setWaiterId(waiterId);
 
         // calculate working hours
-        int timeSlotIndex = waiterRepository.getTimeSlotIndex(waiterId, locationId, booking.getDate(), getTimeSlot(booking.getTimeFrom(), booking.getTimeTo()));
-        context.getLogger().log("time slot index: " + timeSlotIndex);
-        if (timeSlotIndex == -1) {
+        boolean removed = waiterRepository.removeTimeSlotFromWaiter(waiterId, locationId, booking.getDate(), getTimeSlot(booking.getTimeFrom(), booking.getTimeTo()));
+        if (!removed) {
             throw new RuntimeException("This reservation is not assigned to waiter");
         }
-
-        waiterRepository.removeTimeSlotFromWaiter(waiterId, locationId, booking.getDate(), getTimeSlot(booking.getTimeFrom(), booking.getTimeTo()));
         context.getLogger().log("removed time slot from waiter");
 
         float workingHours = calculateHours(booking.getTimeFrom(), booking.getTimeTo());
@@ -595,12 +606,8 @@ public class ReportsHandler implements RequestHandler<SQSEvent, Map<String, Obje
         String waiterId = booking.getWaiterId();
         String locationId = booking.getLocationId();
 
-        int timeSlotIndex = waiterRepository.getTimeSlotIndex(waiterId, locationId, booking.getDate(), getTimeSlot(booking.getTimeFrom(), booking.getTimeTo()));
-        context.getLogger().log("time slot index: " + timeSlotIndex);
-
-        if (timeSlotIndex != -1) {
-            waiterRepository.removeTimeSlotFromWaiter(waiterId, locationId, booking.getDate(), getTimeSlot(booking.getTimeFrom(), booking.getTimeTo()));
-            context.getLogger().log("removing timeslot from waiter");
+        if (waiterRepository.removeTimeSlotFromWaiter(waiterId, locationId, booking.getDate(), getTimeSlot(booking.getTimeFrom(), booking.getTimeTo()))) {
+            context.getLogger().log("removed timeslot from waiter");
 
             float workingHours = waiterReport.getWorkingHours() + calculateHours(booking.getTimeFrom(), booking.getTimeTo());
             waiterReport.setWorkingHours(workingHours);
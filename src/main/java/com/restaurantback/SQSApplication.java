@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.restaurantback.repository.BookingRepository;
 import com.restaurantback.repository.EmployeeRepository;
 import com.restaurantback.repository.RepositoryModule;
+import com.restaurantback.repository.TableRepository;
 import com.restaurantback.repository.WaiterRepository;
 import com.restaurantback.services.*;
 import com.restaurantback.utils.UtilsModule;
@@ -45,6 +46,9 @@ public interface SQSApplication {
     @Named("waiterRepository")
     WaiterRepository getWaiterRepository();
 
+    @Named("tableRepository")
+    TableRepository getTableRepository();
+
     @Named("employeeRepository")
     EmployeeRepository getEmployeeRepository();
 
@@ -9,8 +9,9 @@ import com.amazonaws.services.sqs.model.MessageAttributeValue;
 import com.amazonaws.services.sqs.model.QueueDoesNotExistException;
 import com.amazonaws.services.sqs.model.SendMessageRequest;
 import com.restaurantback.models.Booking;
-import com.restaurantback.repository.BookingRepository;
 import com.restaurantback.services.BookingService;
+import com.restaurantback.utils.JsonSerializer;
+import com.restaurantback.utils.TimeOfDay;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
 import com.syndicate.deployment.annotations.events.RuleEventSource;
@@ -20,13 +21,8 @@ import com.syndicate.deployment.model.DeploymentRuntime;
 import com.syndicate.deployment.model.ResourceType;
 import com.syndicate.deployment.model.RetentionSetting;
 
-import org.json.JSONObject;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.STIconSetType;
 
-import java.time.LocalDate;
-import java.time.LocalTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,7 +41,9 @@ import java.util.Map;
 
 @EnvironmentVariables(value = {
         @EnvironmentVariable(key = "reportQueue", value = "${report_sqs_queue}"),
-        @EnvironmentVariable(key = "bookingTable", value = "${booking_table}")
+        @EnvironmentVariable(key = "bookingTable", value = "${booking_table}"),
+        @EnvironmentVariable(key = "tablesTable", value = "${tables_table}"),
+        @EnvironmentVariable(key = "waiterTable", value = "${waiter_table}")
 })
 
 public class SqsEventSenderHandler implements RequestHandler<ScheduledEvent, Map<String, Object>> {
@@ -56,7 +54,6 @@ public class SqsEventSenderHandler implements RequestHandler<ScheduledEvent, Map
 
     private final AmazonSQS amazonSQSClient = sqsApplication.getAmazonSqsClient();
     private final BookingService bookingService = sqsApplication.getBookingService();
-    private final BookingRepository bookingRepository = sqsApplication.getBookingRepository();
 
     @Override
     public Map<String, Object> handleRequest(ScheduledEvent request, Context context) {
@@ -65,24 +62,15 @@ public class SqsEventSenderHandler implements RequestHandler<ScheduledEvent, Map
         Map<String, Object> resultMap = new HashMap<String, Object>();
 
         try {
-            context.getLogger().log("Request for update all the reservations...");
-            bookingService.updateBookings();
-            context.getLogger().log("Reservations are updated");
-
-            context.getLogger().log("Get all reservations for today...");
-            LocalDate currDate = LocalDate.now(ZoneId.of("Asia/Kolkata"));
-            LocalTime currTime = LocalTime.now(ZoneId.of("Asia/Kolkata"));
-            LocalTime prevTime = currTime.minusMinutes(120);
-
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-            String formattedCurrTime = currTime.format(formatter);
-            String formattedPrevTime = prevTime.format(formatter);
+            String currDate = TimeOfDay.formatDate(TimeOfDay.today());
+            short currTime = TimeOfDay.now();
+            short prevTime = (short) Math.max(0, currTime - 120);
             context.getLogger().log("curr date: " + currDate);
-            context.getLogger().log("curr time: " + currTime + " prev time: " + prevTime);
+            context.getLogger().log("curr time: " + TimeOfDay.format(currTime) + " prev time: " + TimeOfDay.format(prevTime));
 
-//            List<Booking> bookings = bookingRepository.findBookingsByDate(currDate.toString());
-            List<Booking> bookings = bookingRepository.findBookingByDateAndTime(formattedPrevTime, formattedCurrTime);
-            context.getLogger().log("All reservations for time between" +  formattedPrevTime + " to " + formattedCurrTime + " are: " + bookings);
+            // statuses are updated from the end time index; the bookings that just finished are among those read
+            List<Booking> bookings = bookingService.updateBookingStatuses(currDate, prevTime, currTime);
+            context.getLogger().log("Reservations ending from " + TimeOfDay.format(prevTime) + " on: " + bookings.size());
 
             List<Booking> listOfFinishedBookings = getFinishedReservations(bookings);
             context.getLogger().log("List of finished reservation: " + listOfFinishedBookings);
@@ -121,7 +109,7 @@ public class SqsEventSenderHandler implements RequestHandler<ScheduledEvent, Map
             String queueURL = generateQueueUrl(queueName);
             SendMessageRequest sendMessageRequest = new SendMessageRequest()
                     .withQueueUrl(queueURL)
-                    .withMessageBody(new JSONObject(item).toString())
+                    .withMessageBody(JsonSerializer.BOOKING.writeValueAsString(item))
                     .withMessageAttributes(Map.of("eventType", new MessageAttributeValue().withStringValue("DAILY-EVENT").withDataType("String")));
 
             amazonSQSClient.sendMessage(sendMessageRequest);
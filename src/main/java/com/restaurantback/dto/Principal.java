@@ -0,0 +1,72 @@
+package com.restaurantback.dto;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class Principal {
+
+    private final String email;
+    private final String sub;
+    private final String role;
+    private final String givenName;
+    private final String familyName;
+    private final long expiresAt;
+    private final Map<String, Object> claims;
+
+    public Principal(Map<String, Object> claims) {
+        this.claims = Collections.unmodifiableMap(claims);
+        this.email = stringClaim("email");
+        this.sub = stringClaim("sub");
+        this.role = stringClaim("custom:role");
+        this.givenName = stringClaim("given_name");
+        this.familyName = stringClaim("family_name");
+        Object exp = claims.get("exp");
+        this.expiresAt = exp instanceof Number ? ((Number) exp).longValue() : Long.MAX_VALUE;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getSub() {
+        return sub;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getGivenName() {
+        return givenName;
+    }
+
+    public String getFamilyName() {
+        return familyName;
+    }
+
+    // epoch seconds taken from the "exp" claim, Long.MAX_VALUE when the token carries none
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public String getClaim(String name) {
+        return stringClaim(name);
+    }
+
+    public CognitoToken toCognitoToken() {
+        return new CognitoToken(familyName, givenName, email, sub, role);
+    }
+
+    private String stringClaim(String name) {
+        Object value = claims.get(name);
+        return value != null ? value.toString() : null;
+    }
+
+    @Override
+    public String toString() {
+        return "Principal{" +
+                "email='" + email + '\'' +
+                ", role='" + role + '\'' +
+                '}';
+    }
+}
@@ -1,10 +1,6 @@
 package com.restaurantback.dto;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class RouteKey {
 
@@ -12,8 +8,6 @@ public class RouteKey {
 
     private final String path;
 
-    private final Pattern pathPattern;
-
 
     public RouteKey(String method, String path) {
 
@@ -21,10 +15,6 @@ public class RouteKey {
 
         this.path = path;
 
-        // Convert {id} to a regex matching dynamic segments
-
-        this.pathPattern = Pattern.compile(path.replaceAll("\\{[^/]+}", "[^/]+")); // Matches /locations/{id}/feedbacks
-
     }
 
     public String getMethod() {
@@ -39,13 +29,6 @@ public class RouteKey {
 
     }
 
-    public boolean matches(String method, String incomingPath) {
-
-        return this.method.equalsIgnoreCase(method) && pathPattern.matcher(incomingPath).matches();
-
-    }
-
-
     @Override
 
     public boolean equals(Object o) {
@@ -84,39 +67,4 @@ public class RouteKey {
 
     }
 
-    public Map<String, String> extractPathVariables(String incomingPath) {
-
-        Map<String, String> pathVariables = new HashMap<>();
-
-        Matcher matcher = pathPattern.matcher(incomingPath);
-
-        if (matcher.matches()) {
-
-            // Split the predefined template path and incoming path into segments
-
-            String[] templateParts = path.split("/");
-
-            String[] actualParts = incomingPath.split("/");
-
-            // Extract variables where placeholders exist (e.g., {id})
-
-            for (int i = 0; i < templateParts.length; i++) {
-
-                if (templateParts[i].startsWith("{") && templateParts[i].endsWith("}")) {
-
-                    String paramName = templateParts[i].substring(1, templateParts[i].length() - 1); // Strip { }
-
-                    pathVariables.put(paramName, actualParts[i]); // Map paramName -> value
-
-                }
-
-            }
-
-        }
-
-        return pathVariables;
-
-    }
-
 }
-
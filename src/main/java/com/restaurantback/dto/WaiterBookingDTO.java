@@ -20,4 +20,5 @@ public class WaiterBookingDTO {
     private String tableNumber;
     private String timeFrom;
     private String timeTo;
+    private Integer durationMinutes;
 }
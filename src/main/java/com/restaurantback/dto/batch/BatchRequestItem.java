@@ -0,0 +1,18 @@
+package com.restaurantback.dto.batch;
+
+import lombok.*;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BatchRequestItem {
+    private String id;                  // echoed back so the client can match responses
+    private String method;
+    private String path;
+    private Map<String, String> query;
+    private String body;
+}
@@ -0,0 +1,18 @@
+package com.restaurantback.dto.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.*;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BatchResponseItem {
+    private String id;
+    private int status;
+    private Map<String, String> headers;
+    private JsonNode body;
+}
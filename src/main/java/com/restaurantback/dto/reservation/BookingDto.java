@@ -11,11 +11,13 @@ import lombok.*;
 public class BookingDto {
     private String reservation_id;
     private String locationId;      // Add this
-    private String tableId;
+    private String tableId;         // omit to have the smallest free table assigned
     private String date;
     private String waiterId;
     private String timeFrom;
     private String timeTo;
+    private Integer durationMinutes; // alternative to timeTo
+    private String holdId;          // hold from POST /bookings/holds that this booking converts
     private String guestsNumber;
     private String feedbackId;
     private Boolean byCustomer;
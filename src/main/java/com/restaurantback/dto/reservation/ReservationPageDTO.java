@@ -0,0 +1,15 @@
+package com.restaurantback.dto.reservation;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class ReservationPageDTO {
+    private List<ReservationDto> content;
+    private String nextCursor; // null on the last page
+}
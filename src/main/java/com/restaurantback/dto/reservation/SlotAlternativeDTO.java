@@ -0,0 +1,16 @@
+package com.restaurantback.dto.reservation;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class SlotAlternativeDTO {
+    private String kind;            // SAME_TABLE, OTHER_TABLE or OTHER_DAY
+    private String tableNumber;
+    private int capacity;
+    private String date;
+    private String timeSlot;
+}
@@ -0,0 +1,20 @@
+package com.restaurantback.dto.reservation;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class SlotHoldDTO {
+    private String holdId;
+    private String locationId;
+    private String tableId;
+    private String date;
+    private String timeFrom;
+    private String timeTo;
+    private Integer durationMinutes; // alternative to timeTo
+    private String guestsNumber;
+    private long expiresAt;          // epoch seconds
+}
@@ -1,7 +1,25 @@
 package com.restaurantback.exceptions.reservationException;
 
+import com.restaurantback.dto.reservation.SlotAlternativeDTO;
+
+import java.util.List;
+
 public class ConflictException extends RuntimeException {
+    private final List<SlotAlternativeDTO> alternatives;
+
     public ConflictException(String message) {
+        this(message, List.of());
+    }
+
+    public ConflictException(String message, List<SlotAlternativeDTO> alternatives) {
         super(message);
+        this.alternatives = alternatives;
+    }
+
+    /**
+     * Free slots close to the one that was asked for, best first; empty when none were computed.
+     */
+    public List<SlotAlternativeDTO> getAlternatives() {
+        return alternatives;
     }
 }
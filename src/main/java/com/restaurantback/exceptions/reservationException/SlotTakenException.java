@@ -0,0 +1,17 @@
+package com.restaurantback.exceptions.reservationException;
+
+/**
+ * A table or waiter slot was already claimed by another booking; resource is "Table" or "Waiter".
+ */
+public class SlotTakenException extends ConflictException {
+    private final String resource;
+
+    public SlotTakenException(String resource, String message) {
+        super(message);
+        this.resource = resource;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+}
@@ -2,16 +2,19 @@ package com.restaurantback.handlers;
 
 
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.restaurantback.dto.reservation.SlotAlternativeDTO;
 import com.restaurantback.exceptions.reservationException.*;
+import com.restaurantback.utils.JsonSerializer;
 
 import javax.validation.ValidationException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class ApiResponse {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectWriter objectWriter = JsonSerializer.mapper().writer();
 
     public static Map<String, String> getHeaders() {
 
@@ -31,13 +34,19 @@ public class ApiResponse {
 
     public static APIGatewayProxyResponseEvent success(Object body) {
 
+        return success(body, objectWriter);
+
+    }
+
+    public static APIGatewayProxyResponseEvent success(Object body, ObjectWriter writer) {
+
         try {
 
             return new APIGatewayProxyResponseEvent()
 
                     .withStatusCode(200)
 
-                    .withBody(objectMapper.writeValueAsString(body))
+                    .withBody(writer.writeValueAsString(body))
 
                     .withHeaders(getHeaders());
 
@@ -78,7 +87,15 @@ public class ApiResponse {
         }
 
         if (e instanceof ConflictException) {
-            return createResponse(409, e.getMessage(), false);
+            List<SlotAlternativeDTO> alternatives = ((ConflictException) e).getAlternatives();
+            return createResponse(409, e.getMessage(), false,
+                    alternatives.isEmpty() ? Map.of() : Map.of("alternatives", alternatives));
+        }
+
+        if (e instanceof TooManyRequestsException) {
+            APIGatewayProxyResponseEvent response = createResponse(429, e.getMessage(), false);
+            response.getHeaders().put("Retry-After", String.valueOf(((TooManyRequestsException) e).getRetryAfterSeconds()));
+            return response;
         }
 
         // If we get here, it's an unexpected error
@@ -88,6 +105,10 @@ public class ApiResponse {
     }
 
     private static APIGatewayProxyResponseEvent createResponse(int statusCode, String message, boolean isAuthError) {
+        return createResponse(statusCode, message, isAuthError, Map.of());
+    }
+
+    private static APIGatewayProxyResponseEvent createResponse(int statusCode, String message, boolean isAuthError, Map<String, Object> extra) {
 
         Map<String, String> headers = getHeaders();
 
@@ -105,11 +126,13 @@ public class ApiResponse {
 
             responseBody.put("message", message);
 
+            responseBody.putAll(extra);
+
             return new APIGatewayProxyResponseEvent()
 
                     .withStatusCode(statusCode)
 
-                    .withBody(objectMapper.writeValueAsString(responseBody))
+                    .withBody(objectWriter.writeValueAsString(responseBody))
 
                     .withHeaders(headers);
 
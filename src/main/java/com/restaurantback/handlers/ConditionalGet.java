@@ -0,0 +1,112 @@
+package com.restaurantback.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.restaurantback.utils.CatalogVersion;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ETag / If-None-Match handling for the catalog endpoints. The tag combines the version of every
+ * catalog the response is built from with a variant string (query parameters, path id).
+ */
+public class ConditionalGet {
+
+    private ConditionalGet() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns a 304 when every catalog is fresh and the client already holds the current tag,
+     * otherwise null so the handler goes on to build the response.
+     */
+    public static APIGatewayProxyResponseEvent notModified(APIGatewayProxyRequestEvent request, String variant, CatalogVersion... catalogs) {
+        for (CatalogVersion catalog : catalogs) {
+            if (!catalog.isFresh()) {
+                return null;
+            }
+        }
+        String etag = etag(variant, catalogs);
+        if (etag == null || !matches(ifNoneMatch(request), etag)) {
+            return null;
+        }
+        return new APIGatewayProxyResponseEvent()
+                .withStatusCode(304)
+                .withHeaders(validators(etag, catalogs));
+    }
+
+    /**
+     * Adds ETag and Cache-Control to a successful response, turning it into a 304 when the client's
+     * tag turns out to match after the scan.
+     */
+    public static APIGatewayProxyResponseEvent withValidators(APIGatewayProxyRequestEvent request, APIGatewayProxyResponseEvent response, String variant, CatalogVersion... catalogs) {
+        String etag = etag(variant, catalogs);
+        if (etag == null || response.getStatusCode() == null || response.getStatusCode() != 200) {
+            return response;
+        }
+
+        if (matches(ifNoneMatch(request), etag)) {
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(304)
+                    .withHeaders(validators(etag, catalogs));
+        }
+
+        Map<String, String> headers = response.getHeaders() == null ? new HashMap<>() : new HashMap<>(response.getHeaders());
+        headers.putAll(validators(etag, catalogs));
+        return response.withHeaders(headers);
+    }
+
+    private static Map<String, String> validators(String etag, CatalogVersion... catalogs) {
+        long maxAge = Long.MAX_VALUE;
+        for (CatalogVersion catalog : catalogs) {
+            maxAge = Math.min(maxAge, catalog.maxAgeSeconds());
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("ETag", etag);
+        headers.put("Cache-Control", "public, max-age=" + maxAge);
+        return headers;
+    }
+
+    private static String etag(String variant, CatalogVersion... catalogs) {
+        StringBuilder tag = new StringBuilder("\"");
+        for (CatalogVersion catalog : catalogs) {
+            String version = catalog.tag();
+            if (version == null) {
+                return null;
+            }
+            tag.append(version).append('.');
+        }
+        tag.append(Integer.toHexString(variant == null ? 0 : variant.hashCode()));
+        return tag.append('"').toString();
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String ifNoneMatch(APIGatewayProxyRequestEvent request) {
+        Map<String, String> headers = request.getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if ("If-None-Match".equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -9,7 +9,9 @@ import com.restaurantback.handlers.auth.PostLogOutHandler;
 import com.restaurantback.handlers.auth.PostRefreshTokenHandler;
 import com.restaurantback.handlers.auth.PostSignInHandler;
 import com.restaurantback.handlers.auth.PostSignUpHandler;
+import com.restaurantback.handlers.batch.BatchHandler;
 import com.restaurantback.handlers.booking.BookTableHandler;
+import com.restaurantback.handlers.booking.HoldTableHandler;
 import com.restaurantback.handlers.booking.UpdateBookingHandler;
 import com.restaurantback.handlers.dishes.DishesByIdHandler;
 import com.restaurantback.handlers.dishes.DishesHandler;
@@ -28,8 +30,10 @@ import com.restaurantback.handlers.reservation.*;
 import com.restaurantback.handlers.tables.AvailableTableHandler;
 import com.restaurantback.handlers.waiter.WaiterReservationHandler;
 import com.restaurantback.repository.BookingRepository;
+import com.restaurantback.repository.RateLimitRepository;
 import com.restaurantback.services.*;
 import com.restaurantback.services.BookingService;
+import dagger.Lazy;
 import dagger.Module;
 import dagger.Provides;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
@@ -39,6 +43,7 @@ import javax.inject.Singleton;
 import java.awt.print.Book;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Module
 public class HandlersModule {
@@ -158,6 +163,13 @@ public class HandlersModule {
 
     }
 
+    @Singleton
+    @Provides
+    @Named("holdTableHandler")
+    HoldTableHandler holdTableHandler(@Named("tableService") TableService tableService, @Named("objectMapper") ObjectMapper objectMapper) {
+        return new HoldTableHandler(tableService, objectMapper);
+    }
+
     @Singleton
     @Provides
     @Named("deleteReservationHandler")
@@ -256,6 +268,7 @@ public class HandlersModule {
             @Named("putUsersProfileHandler") PutUsersProfileHandler putUsersProfileHandler,
             @Named("refreshTokenHandler") PostRefreshTokenHandler postRefreshTokenHandler,
             @Named("bookTableHandler") BookTableHandler bookTableHandler,
+            @Named("holdTableHandler") HoldTableHandler holdTableHandler,
             @Named("deleteReservationHandler") DeleteReservationHandler deleteReservationHandler,
             @Named("getReservationHandler") GetReservationHandler getReservationHandler,
             @Named("postEmployeeHandler") PostEmployeeHandler postEmployeeHandler,
@@ -265,7 +278,9 @@ public class HandlersModule {
             @Named("waiterUpdateHandler") WaiterUpdateHandler waiterUpdateHandler,
             @Named("waiterReservationHandler") WaiterReservationHandler waiterReservationHandler,
             @Named("dishesHandler") DishesHandler dishesHandler,
-            @Named("dishesByIdHandler") DishesByIdHandler dishesByIdHandler
+            @Named("dishesByIdHandler") DishesByIdHandler dishesByIdHandler,
+            @Named("batchHandler") BatchHandler batchHandler,
+            @Named("idempotencyService") IdempotencyService idempotencyService
 
     ) {
         Map<RouteKey, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> routeMap = new HashMap<>();
@@ -284,7 +299,8 @@ public class HandlersModule {
         routeMap.put(new RouteKey("POST", "/auth/new-access-token"), postRefreshTokenHandler);
         routeMap.put(new RouteKey("GET", "/reservations"), getReservationHandler);
         routeMap.put(new RouteKey("DELETE", "/reservations/{id}"), deleteReservationHandler);
-        routeMap.put(new RouteKey("POST", "/bookings/client"), bookTableHandler);
+        routeMap.put(new RouteKey("POST", "/bookings/client"), new IdempotentHandler("POST /bookings/client", bookTableHandler, idempotencyService));
+        routeMap.put(new RouteKey("POST", "/bookings/holds"), holdTableHandler);
         routeMap.put(new RouteKey("GET", "/users/profile"), getUsersProfileHandler);
         routeMap.put(new RouteKey("PUT", "/users/profile/password"), putChangeUsersProfilePasswordHandler);
         routeMap.put(new RouteKey("PUT", "/users/profile"), putUsersProfileHandler);
@@ -293,11 +309,93 @@ public class HandlersModule {
         routeMap.put(new RouteKey("DELETE", "/reservations/waiter/{id}"), deleteReservationWaiterHandler);
         routeMap.put(new RouteKey("PATCH", "/reservations/waiter/{id}"), waiterUpdateHandler);
         routeMap.put(new RouteKey("GET", "/waiters/reservations"), getWaiterReservationHandler);
-        routeMap.put(new RouteKey("POST", "/bookings/waiter"), waiterReservationHandler);
+        routeMap.put(new RouteKey("POST", "/bookings/waiter"), new IdempotentHandler("POST /bookings/waiter", waiterReservationHandler, idempotencyService));
         routeMap.put(new RouteKey("POST", "/feedbacks"), feedbackCreationHandler);
         routeMap.put(new RouteKey("PUT", "/feedbacks"), feedbackModificationHandler);
+        routeMap.put(new RouteKey("POST", BatchHandler.BATCH_PATH), batchHandler);
 
         return routeMap;
 
     }
+
+    @Singleton
+    @Provides
+    @Named("routeTrie")
+    RouteTrie provideRouteTrie(@Named("routeMap") Map<RouteKey, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> routeMap) {
+        return new RouteTrie(routeMap);
+    }
+
+    @Singleton
+    @Provides
+    @Named("coalescedRoutes")
+    Set<RouteKey> provideCoalescedRoutes() {
+        return Set.of(
+                new RouteKey("GET", "/dishes/popular"),
+                new RouteKey("GET", "/dishes/{id}"),
+                new RouteKey("GET", "/dishes"),
+                new RouteKey("GET", "/locations/select-options"),
+                new RouteKey("GET", "/locations"),
+                new RouteKey("GET", "/locations/{id}/speciality-dishes"),
+                new RouteKey("GET", "/locations/{id}/feedbacks"),
+                new RouteKey("GET", "/bookings/tables")
+        );
+    }
+
+    @Singleton
+    @Provides
+    @Named("requestCoalescer")
+    RequestCoalescer provideRequestCoalescer(@Named("coalescedRoutes") Set<RouteKey> coalescedRoutes) {
+        return new RequestCoalescer(coalescedRoutes);
+    }
+
+    // tokens taken per request; routes backed by full-table scans cost more, everything else costs 1
+    @Singleton
+    @Provides
+    @Named("routeCosts")
+    Map<RouteKey, Integer> provideRouteCosts() {
+        return Map.of(
+                new RouteKey("GET", "/bookings/tables"), 5,
+                new RouteKey("GET", "/reservations"), 2,
+                new RouteKey("GET", "/waiters/reservations"), 2,
+                new RouteKey("POST", "/bookings/client"), 3,
+                new RouteKey("POST", "/bookings/waiter"), 3,
+                new RouteKey("GET", "/locations/{id}/feedbacks"), 3,
+                new RouteKey("GET", "/dishes"), 2,
+                new RouteKey("GET", "/dishes/popular"), 2,
+                new RouteKey("GET", "/locations/{id}/speciality-dishes"), 2
+        );
+    }
+
+    @Singleton
+    @Provides
+    @Named("rateLimiter")
+    RateLimiter provideRateLimiter(@Named("routeCosts") Map<RouteKey, Integer> routeCosts, @Named("rateLimitRepository") RateLimitRepository rateLimitRepository) {
+        return new RateLimiter(routeCosts, rateLimitRepository);
+    }
+
+    @Singleton
+    @Provides
+    @Named("routeNotImplementedHandler")
+    RouteNotImplementedService provideRouteNotImplementedHandler() {
+        return new RouteNotImplementedService();
+    }
+
+    @Singleton
+    @Provides
+    @Named("routeDispatcher")
+    RouteDispatcher provideRouteDispatcher(
+            @Named("routeTrie") RouteTrie routeTrie,
+            @Named("requestCoalescer") RequestCoalescer requestCoalescer,
+            @Named("rateLimiter") RateLimiter rateLimiter,
+            @Named("routeNotImplementedHandler") RouteNotImplementedService routeNotImplementedService) {
+        return new RouteDispatcher(routeTrie, requestCoalescer, rateLimiter, routeNotImplementedService);
+    }
+
+    // Lazy breaks the cycle: the dispatcher's route map contains this handler
+    @Singleton
+    @Provides
+    @Named("batchHandler")
+    BatchHandler provideBatchHandler(@Named("routeDispatcher") Lazy<RouteDispatcher> routeDispatcher, @Named("objectMapper") ObjectMapper objectMapper) {
+        return new BatchHandler(routeDispatcher, objectMapper);
+    }
 }
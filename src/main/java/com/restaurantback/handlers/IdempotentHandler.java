@@ -0,0 +1,120 @@
+package com.restaurantback.handlers;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.restaurantback.dto.Principal;
+import com.restaurantback.models.IdempotencyRecord;
+import com.restaurantback.services.IdempotencyService;
+import com.restaurantback.utils.TokenClaimsExtractor;
+
+import javax.validation.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wraps a booking handler so requests carrying an Idempotency-Key run at most once per caller:
+ * a retry with the same key and body gets the stored response back (marked Idempotent-Replayed)
+ * without the booking, table or waiter tables being touched. Requests without the header, or
+ * without a valid token, go straight to the wrapped handler.
+ */
+public class IdempotentHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final String scope;
+
+    private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> delegate;
+
+    private final IdempotencyService idempotencyService;
+
+    public IdempotentHandler(String scope, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> delegate, IdempotencyService idempotencyService) {
+        this.scope = scope;
+        this.delegate = delegate;
+        this.idempotencyService = idempotencyService;
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        String idempotencyKey = header(request, IDEMPOTENCY_HEADER);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return delegate.handleRequest(request, context);
+        }
+
+        Principal principal;
+        try {
+            principal = TokenClaimsExtractor.getPrincipal(request);
+        } catch (Exception e) {
+            return delegate.handleRequest(request, context);
+        }
+
+        String key = scope + "#" + principal.getEmail() + "#" + idempotencyKey.trim();
+        String requestHash = sha256(request.getBody());
+
+        try {
+            if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+                throw new ValidationException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+            }
+            IdempotencyRecord replay = idempotencyService.begin(key, requestHash);
+            if (replay != null) {
+                return toResponse(replay);
+            }
+        } catch (Exception e) {
+            return ApiResponse.error(e);
+        }
+
+        APIGatewayProxyResponseEvent response;
+        try {
+            response = delegate.handleRequest(request, context);
+        } catch (RuntimeException e) {
+            idempotencyService.abandon(key);
+            throw e;
+        }
+
+        Integer statusCode = response.getStatusCode();
+        if (statusCode != null && statusCode < 500) {
+            idempotencyService.complete(key, requestHash, statusCode, response.getHeaders(), response.getBody());
+        } else {
+            idempotencyService.abandon(key);
+        }
+        return response;
+    }
+
+    private static APIGatewayProxyResponseEvent toResponse(IdempotencyRecord replay) {
+        Map<String, String> headers = replay.getHeaders() == null ? new HashMap<>() : new HashMap<>(replay.getHeaders());
+        headers.put("Idempotent-Replayed", "true");
+        return new APIGatewayProxyResponseEvent()
+                .withStatusCode(replay.getStatusCode())
+                .withHeaders(headers)
+                .withBody(replay.getBody());
+    }
+
+    private static String header(APIGatewayProxyRequestEvent request, String name) {
+        Map<String, String> headers = request.getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String sha256(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest((body == null ? "" : body).getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
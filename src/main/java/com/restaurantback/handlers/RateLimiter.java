@@ -0,0 +1,95 @@
+package com.restaurantback.handlers;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.restaurantback.dto.RouteKey;
+import com.restaurantback.exceptions.reservationException.TooManyRequestsException;
+import com.restaurantback.repository.RateLimitRepository;
+import com.restaurantback.utils.TokenBucket;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admission control in front of the handlers: one token bucket per caller and route, where the
+ * caller is the email from claims the API Gateway authorizer verified, or otherwise the source IP.
+ * The principal PrincipalResolver decodes from the bearer token is not used: its signature is not
+ * checked, so a client could mint a fresh caller (and bucket) per request. Each route costs a
+ * configured number of tokens (scan-heavy routes cost more, default 1). When the shared backend is
+ * enabled a request must pass both the container-local bucket and the shared one.
+ */
+public class RateLimiter {
+
+    private static final int MAX_BUCKETS = 10_000;
+
+    // set by the API Gateway Cognito authorizer after it has verified the token
+    private static final String AUTHORIZER_CLAIMS = "claims";
+
+    private final Map<RouteKey, Integer> routeCosts;
+
+    private final RateLimitRepository rateLimitRepository;
+
+    private final double capacity = doubleFromEnv("RATE_LIMIT_CAPACITY", 20);
+
+    private final double refillPerSecond = doubleFromEnv("RATE_LIMIT_REFILL_PER_SECOND", 5);
+
+    private final Map<String, TokenBucket> buckets = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+            return size() > MAX_BUCKETS;
+        }
+    };
+
+    public RateLimiter(Map<RouteKey, Integer> routeCosts, RateLimitRepository rateLimitRepository) {
+        this.routeCosts = routeCosts;
+        this.rateLimitRepository = rateLimitRepository;
+    }
+
+    /**
+     * Takes the route's cost from the caller's bucket or throws TooManyRequestsException carrying
+     * the number of seconds until the request would be admitted.
+     */
+    public void admit(RouteKey routeKey, APIGatewayProxyRequestEvent request) {
+        if (routeKey == null) {
+            return;
+        }
+        int cost = routeCosts.getOrDefault(routeKey, 1);
+        String bucketKey = callerOf(request) + "|" + routeKey.getMethod() + " " + routeKey.getPath();
+
+        long waitMillis = localBucket(bucketKey).tryAcquire(cost);
+        if (waitMillis == 0 && rateLimitRepository.isEnabled()) {
+            waitMillis = rateLimitRepository.tryAcquire(bucketKey, cost, capacity, refillPerSecond);
+        }
+        if (waitMillis > 0) {
+            throw new TooManyRequestsException("Too many requests, please retry later", Math.max(1, (waitMillis + 999) / 1000));
+        }
+    }
+
+    private TokenBucket localBucket(String bucketKey) {
+        synchronized (buckets) {
+            return buckets.computeIfAbsent(bucketKey, key -> new TokenBucket(capacity, refillPerSecond));
+        }
+    }
+
+    private static String callerOf(APIGatewayProxyRequestEvent request) {
+        if (request.getRequestContext() != null) {
+            Map<String, Object> authorizer = request.getRequestContext().getAuthorizer();
+            Object claims = authorizer == null ? null : authorizer.get(AUTHORIZER_CLAIMS);
+            if (claims instanceof Map && ((Map<?, ?>) claims).get("email") != null) {
+                return ((Map<?, ?>) claims).get("email").toString();
+            }
+            if (request.getRequestContext().getIdentity() != null && request.getRequestContext().getIdentity().getSourceIp() != null) {
+                return request.getRequestContext().getIdentity().getSourceIp();
+            }
+        }
+        return "anonymous";
+    }
+
+    private static double doubleFromEnv(String name, double defaultValue) {
+        String value = System.getenv(name);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
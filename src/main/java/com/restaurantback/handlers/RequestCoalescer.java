@@ -0,0 +1,82 @@
+package com.restaurantback.handlers;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.restaurantback.dto.RouteKey;
+import com.restaurantback.utils.SingleFlight;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Shares one handler invocation between identical concurrent GETs on the anonymous read routes
+ * (dishes, locations, feedback pages, table availability). Requests are identical when they hit the
+ * same route with the same path, the same query parameters in any order, and the same If-None-Match.
+ * Every caller gets its own copy of the response, since CORS and compression are applied per request.
+ */
+public class RequestCoalescer {
+
+    private final Set<RouteKey> coalescedRoutes;
+
+    private final SingleFlight<String, APIGatewayProxyResponseEvent> singleFlight = new SingleFlight<>();
+
+    public RequestCoalescer(Set<RouteKey> coalescedRoutes) {
+        this.coalescedRoutes = coalescedRoutes;
+    }
+
+    public APIGatewayProxyResponseEvent handle(RouteKey routeKey,
+                                               RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler,
+                                               APIGatewayProxyRequestEvent request,
+                                               Context context) {
+        if (routeKey == null || !coalescedRoutes.contains(routeKey)) {
+            return handler.handleRequest(request, context);
+        }
+
+        APIGatewayProxyResponseEvent shared = singleFlight.execute(keyOf(request), () -> handler.handleRequest(request, context));
+        return copyOf(shared);
+    }
+
+    private static String keyOf(APIGatewayProxyRequestEvent request) {
+        StringBuilder key = new StringBuilder(request.getHttpMethod()).append(' ').append(request.getPath());
+
+        Map<String, String> queryParams = request.getQueryStringParameters();
+        if (queryParams != null && !queryParams.isEmpty()) {
+            char separator = '?';
+            for (Map.Entry<String, String> param : new TreeMap<>(queryParams).entrySet()) {
+                key.append(separator).append(param.getKey()).append('=').append(param.getValue());
+                separator = '&';
+            }
+        }
+
+        String ifNoneMatch = header(request, "If-None-Match");
+        if (ifNoneMatch != null) {
+            key.append('#').append(ifNoneMatch);
+        }
+        return key.toString();
+    }
+
+    private static String header(APIGatewayProxyRequestEvent request, String name) {
+        Map<String, String> headers = request.getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static APIGatewayProxyResponseEvent copyOf(APIGatewayProxyResponseEvent response) {
+        return new APIGatewayProxyResponseEvent()
+                .withStatusCode(response.getStatusCode())
+                .withHeaders(response.getHeaders() == null ? null : new HashMap<>(response.getHeaders()))
+                .withBody(response.getBody())
+                .withIsBase64Encoded(response.getIsBase64Encoded());
+    }
+}
@@ -0,0 +1,59 @@
+package com.restaurantback.handlers;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.restaurantback.dto.RouteKey;
+import com.restaurantback.exceptions.reservationException.TooManyRequestsException;
+import com.restaurantback.utils.PrincipalResolver;
+
+/**
+ * Routes a request to its handler: resolves the route, fills in path variables, attaches the caller's
+ * principal, applies the rate limiter and runs the handler through the request coalescer. Shared by ApiHandler and the
+ * sub-requests of POST /batch; CORS headers and compression are left to the caller.
+ */
+public class RouteDispatcher {
+
+    private final RouteTrie routeTrie;
+
+    private final RequestCoalescer requestCoalescer;
+
+    private final RateLimiter rateLimiter;
+
+    private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> routeNotImplemented;
+
+    public RouteDispatcher(RouteTrie routeTrie, RequestCoalescer requestCoalescer, RateLimiter rateLimiter, RouteNotImplementedService routeNotImplemented) {
+        this.routeTrie = routeTrie;
+        this.requestCoalescer = requestCoalescer;
+        this.rateLimiter = rateLimiter;
+        this.routeNotImplemented = routeNotImplemented;
+    }
+
+    public RouteTrie.Match match(APIGatewayProxyRequestEvent request) {
+        return routeTrie.match(request.getHttpMethod(), request.getPath());
+    }
+
+    public APIGatewayProxyResponseEvent dispatch(APIGatewayProxyRequestEvent request, Context context) {
+        return dispatch(match(request), request, context);
+    }
+
+    public APIGatewayProxyResponseEvent dispatch(RouteTrie.Match match, APIGatewayProxyRequestEvent request, Context context) {
+        RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler = routeNotImplemented;
+        RouteKey routeKey = null;
+        if (match != null) {
+            request.setPathParameters(match.getPathVariables());
+            handler = match.getHandler();
+            routeKey = match.getRouteKey();
+        }
+        PrincipalResolver.attach(request);
+
+        try {
+            rateLimiter.admit(routeKey, request);
+        } catch (TooManyRequestsException e) {
+            return ApiResponse.error(e);
+        }
+
+        return requestCoalescer.handle(routeKey, handler, request, context);
+    }
+}
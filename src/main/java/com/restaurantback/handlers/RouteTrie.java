@@ -0,0 +1,132 @@
+package com.restaurantback.handlers;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.restaurantback.dto.RouteKey;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Segment trie over the registered routes. Built once from the route map; a lookup walks the
+ * incoming path segment by segment, preferring static segments over {variable} segments and
+ * capturing variables on the way down.
+ */
+public class RouteTrie {
+
+    private final Node root = new Node();
+
+    public RouteTrie(Map<RouteKey, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> routes) {
+        routes.forEach(this::add);
+    }
+
+    private void add(RouteKey routeKey, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler) {
+        Node node = root;
+        for (String segment : segments(routeKey.getPath())) {
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                String name = segment.substring(1, segment.length() - 1);
+                if (node.variable == null) {
+                    node.variable = new Node();
+                    node.variableName = name;
+                } else if (!node.variableName.equals(name)) {
+                    throw new IllegalStateException("Conflicting path variables {" + node.variableName + "} and {" + name + "} in " + routeKey);
+                }
+                node = node.variable;
+            } else {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        String method = routeKey.getMethod().toUpperCase(Locale.ROOT);
+        if (node.handlers.put(method, new Route(routeKey, handler)) != null) {
+            throw new IllegalStateException("Duplicate route " + routeKey);
+        }
+    }
+
+    /**
+     * Returns the matched route with its captured path variables, or null when nothing matches.
+     */
+    public Match match(String method, String path) {
+        if (method == null || path == null) {
+            return null;
+        }
+        String[] segments = segments(path);
+        Map<String, String> pathVariables = new HashMap<>();
+        Route route = walk(root, segments, 0, method.toUpperCase(Locale.ROOT), pathVariables);
+        return route == null ? null : new Match(route.routeKey, route.handler, pathVariables);
+    }
+
+    private Route walk(Node node, String[] segments, int index, String method, Map<String, String> pathVariables) {
+        if (index == segments.length) {
+            return node.handlers.get(method);
+        }
+
+        Node child = node.children.get(segments[index]);
+        if (child != null) {
+            Route route = walk(child, segments, index + 1, method, pathVariables);
+            if (route != null) {
+                return route;
+            }
+        }
+
+        if (node.variable != null) {
+            Route route = walk(node.variable, segments, index + 1, method, pathVariables);
+            if (route != null) {
+                pathVariables.put(node.variableName, segments[index]);
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static String[] segments(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.endsWith("/") && path.length() > start ? path.length() - 1 : path.length();
+        if (start >= end) {
+            return new String[0];
+        }
+        return path.substring(start, end).split("/", -1);
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final Map<String, Route> handlers = new HashMap<>(4);
+        private Node variable;
+        private String variableName;
+    }
+
+    private static class Route {
+        private final RouteKey routeKey;
+        private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler;
+
+        private Route(RouteKey routeKey, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler) {
+            this.routeKey = routeKey;
+            this.handler = handler;
+        }
+    }
+
+    public static class Match {
+        private final RouteKey routeKey;
+        private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler;
+        private final Map<String, String> pathVariables;
+
+        private Match(RouteKey routeKey, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler, Map<String, String> pathVariables) {
+            this.routeKey = routeKey;
+            this.handler = handler;
+            this.pathVariables = pathVariables;
+        }
+
+        public RouteKey getRouteKey() {
+            return routeKey;
+        }
+
+        public RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> getHandler() {
+            return handler;
+        }
+
+        public Map<String, String> getPathVariables() {
+            return pathVariables;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.restaurantback.handlers.batch;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.restaurantback.dto.batch.BatchRequestItem;
+import com.restaurantback.dto.batch.BatchResponseItem;
+import com.restaurantback.handlers.ApiResponse;
+import com.restaurantback.handlers.IdempotentHandler;
+import com.restaurantback.handlers.RouteDispatcher;
+import com.restaurantback.handlers.RouteTrie;
+import com.restaurantback.utils.AppLogger;
+import dagger.Lazy;
+
+import javax.validation.ValidationException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * POST /batch: runs an array of sub-requests ({id, method, path, query, body}) concurrently, one
+ * virtual thread each, through the same routing as top-level requests, and answers with an array of
+ * {id, status, headers, body} in request order. Sub-requests carry the caller's headers and
+ * principal, so authenticated routes behave exactly as if they had been called directly.
+ */
+public class BatchHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    public static final String BATCH_PATH = "/batch";
+
+    private static final AppLogger logger = AppLogger.getLogger(BatchHandler.class);
+
+    private static final int MAX_BATCH_SIZE = 10;
+
+    private static final TypeReference<List<BatchRequestItem>> ITEMS_TYPE = new TypeReference<>() {
+    };
+
+    private final Lazy<RouteDispatcher> routeDispatcher;
+
+    private final ObjectMapper objectMapper;
+
+    public BatchHandler(Lazy<RouteDispatcher> routeDispatcher, ObjectMapper objectMapper) {
+        this.routeDispatcher = routeDispatcher;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        try {
+            List<BatchRequestItem> items = parseItems(request.getBody());
+
+            List<Future<BatchResponseItem>> pending = new ArrayList<>(items.size());
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (BatchRequestItem item : items) {
+                    pending.add(executor.submit(() -> execute(item, request, context)));
+                }
+            }
+
+            List<BatchResponseItem> responses = new ArrayList<>(pending.size());
+            for (int i = 0; i < pending.size(); i++) {
+                responses.add(resultOf(pending.get(i), items.get(i)));
+            }
+            return ApiResponse.success(responses);
+
+        } catch (Exception e) {
+            logger.warn("Batch request failed: {}", e.getMessage());
+            return ApiResponse.error(e);
+        }
+    }
+
+    private List<BatchRequestItem> parseItems(String body) {
+        if (body == null || body.isBlank()) {
+            throw new ValidationException("Batch body must be an array of requests");
+        }
+
+        List<BatchRequestItem> items;
+        try {
+            items = objectMapper.readValue(body, ITEMS_TYPE);
+        } catch (Exception e) {
+            throw new ValidationException("Batch body must be an array of requests");
+        }
+
+        if (items == null || items.isEmpty()) {
+            throw new ValidationException("Batch must contain at least one request");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Batch can contain at most " + MAX_BATCH_SIZE + " requests");
+        }
+        return items;
+    }
+
+    private BatchResponseItem execute(BatchRequestItem item, APIGatewayProxyRequestEvent parent, Context context) {
+        APIGatewayProxyResponseEvent response;
+        try {
+            APIGatewayProxyRequestEvent request = toRequest(item, parent);
+            RouteTrie.Match match = routeDispatcher.get().match(request);
+            // decided on the resolved route, so "/batch/" or other spellings of the path cannot nest
+            if (match != null && BATCH_PATH.equals(match.getRouteKey().getPath())) {
+                throw new ValidationException("Batch requests cannot be nested");
+            }
+            response = routeDispatcher.get().dispatch(match, request, context);
+        } catch (Exception e) {
+            response = ApiResponse.error(e);
+        }
+        return toResponseItem(item, response);
+    }
+
+    private APIGatewayProxyRequestEvent toRequest(BatchRequestItem item, APIGatewayProxyRequestEvent parent) {
+        if (item == null || item.getMethod() == null || item.getPath() == null) {
+            throw new ValidationException("Each batch request needs a method and a path");
+        }
+
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+        if (parent.getRequestContext() != null) {
+            requestContext.setIdentity(parent.getRequestContext().getIdentity());
+            if (parent.getRequestContext().getAuthorizer() != null) {
+                requestContext.setAuthorizer(new HashMap<>(parent.getRequestContext().getAuthorizer()));
+            }
+        }
+
+        // an Idempotency-Key on the envelope does not identify any single sub-request
+        Map<String, String> headers = parent.getHeaders() == null ? new HashMap<>() : new HashMap<>(parent.getHeaders());
+        headers.keySet().removeIf(IdempotentHandler.IDEMPOTENCY_HEADER::equalsIgnoreCase);
+
+        return new APIGatewayProxyRequestEvent()
+                .withHttpMethod(item.getMethod().toUpperCase())
+                .withPath(item.getPath())
+                .withQueryStringParameters(item.getQuery())
+                .withHeaders(headers)
+                .withBody(item.getBody())
+                .withRequestContext(requestContext);
+    }
+
+    private BatchResponseItem resultOf(Future<BatchResponseItem> pending, BatchRequestItem item) throws InterruptedException {
+        try {
+            return pending.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            Exception failure = cause instanceof Exception ? (Exception) cause : e;
+            return toResponseItem(item, ApiResponse.error(failure));
+        }
+    }
+
+    private BatchResponseItem toResponseItem(BatchRequestItem item, APIGatewayProxyResponseEvent response) {
+        Integer status = response.getStatusCode();
+        return new BatchResponseItem(
+                item == null ? null : item.getId(),
+                status == null ? 500 : status,
+                response.getHeaders(),
+                bodyOf(response));
+    }
+
+    private JsonNode bodyOf(APIGatewayProxyResponseEvent response) {
+        String body = response.getBody();
+        if (body == null || body.isEmpty()) {
+            return null;
+        }
+        if (Boolean.TRUE.equals(response.getIsBase64Encoded())) {
+            return TextNode.valueOf(body);
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (Exception e) {
+            return TextNode.valueOf(body);
+        }
+    }
+}
@@ -15,8 +15,6 @@ import com.restaurantback.utils.TokenClaimsExtractor;
 import javax.inject.Inject;
 import java.util.UUID;
 
-import static com.restaurantback.utils.TokenClaimsExtractor.email;
-
 public class BookTableHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     private final BookingService bookingService;
     private final ObjectMapper objectMapper;
@@ -29,6 +27,7 @@ public class BookTableHandler implements RequestHandler<APIGatewayProxyRequestEv
     }
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        String email;
         try {
 
             try {
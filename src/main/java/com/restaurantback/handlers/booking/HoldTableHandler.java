@@ -0,0 +1,49 @@
+package com.restaurantback.handlers.booking;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurantback.dto.reservation.SlotHoldDTO;
+import com.restaurantback.handlers.ApiResponse;
+import com.restaurantback.services.TableService;
+import com.restaurantback.utils.AppLogger;
+import com.restaurantback.utils.TokenClaimsExtractor;
+
+import javax.inject.Inject;
+
+/**
+ * POST /bookings/holds: keeps a table slot for a few minutes while the client completes the booking.
+ */
+public class HoldTableHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private static final AppLogger logger = AppLogger.getLogger(HoldTableHandler.class);
+
+    private final TableService tableService;
+    private final ObjectMapper objectMapper;
+
+    @Inject
+    public HoldTableHandler(TableService tableService, ObjectMapper objectMapper) {
+        this.tableService = tableService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        String email;
+        try {
+            try {
+                email = TokenClaimsExtractor.getUserEmail(request);
+            } catch (Exception e) {
+                logger.warn("Authentication failed: {}", e.getMessage());
+                return ApiResponse.error(e);
+            }
+
+            SlotHoldDTO hold = objectMapper.readValue(request.getBody(), SlotHoldDTO.class);
+            return ApiResponse.success(tableService.holdTable(hold, email));
+        } catch (Exception e) {
+            logger.warn("Error holding table: {}", e.getMessage());
+            return ApiResponse.error(e);
+        }
+    }
+}
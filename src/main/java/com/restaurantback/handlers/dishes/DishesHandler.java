@@ -10,6 +10,8 @@ import com.restaurantback.dto.DishDTO;
 import com.restaurantback.dto.DishResponseDTO;
 import com.restaurantback.dto.DishSmallDTO;
 import com.restaurantback.services.DishesService;
+import com.restaurantback.utils.JsonSerializer;
+import com.restaurantback.handlers.ConditionalGet;
 
 import javax.inject.Inject;
 import java.util.*;
@@ -33,6 +35,12 @@ public class DishesHandler implements RequestHandler<APIGatewayProxyRequestEvent
 
             String sort = queryParams.getOrDefault("sort", ""); // e.g., popularity:asc or price:desc
             String dishType = queryParams.getOrDefault("dishType", "");
+            String variant = sort + "|" + dishType;
+
+            APIGatewayProxyResponseEvent notModified = ConditionalGet.notModified(requestEvent, variant, dishesService.getCatalogVersion());
+            if (notModified != null) {
+                return notModified;
+            }
 
             context.getLogger().log("Fetching dishes with sort: " + sort + ", dishType: " + dishType);
             //list of dishes
@@ -63,12 +71,12 @@ public class DishesHandler implements RequestHandler<APIGatewayProxyRequestEvent
             }
 
 
-            String responseBody = objectMapper.writeValueAsString(Map.of("dishes", responseDTOS));
+            String responseBody = JsonSerializer.DISHES.writeValueAsString(Map.of("dishes", responseDTOS));
             context.getLogger().log("response Body: " + responseBody);
-            return new APIGatewayProxyResponseEvent()
+            return ConditionalGet.withValidators(requestEvent, new APIGatewayProxyResponseEvent()
                     .withStatusCode(200)
                     .withHeaders(Map.of("Content-Type", "application/json"))
-                    .withBody(responseBody);
+                    .withBody(responseBody), variant, dishesService.getCatalogVersion());
 
         } catch (Exception e) {
             context.getLogger().log("Error: " + e.getMessage());
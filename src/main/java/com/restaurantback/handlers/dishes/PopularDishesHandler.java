@@ -7,6 +7,8 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.restaurantback.models.Dish;
 import com.restaurantback.services.DishesService;
+import com.restaurantback.utils.JsonSerializer;
+import com.restaurantback.handlers.ConditionalGet;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 import javax.inject.Inject;
@@ -27,19 +29,24 @@ public class PopularDishesHandler implements RequestHandler<APIGatewayProxyReque
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
         try{
+            APIGatewayProxyResponseEvent notModified = ConditionalGet.notModified(apiGatewayProxyRequestEvent, "popular", dishesService.getCatalogVersion());
+            if (notModified != null) {
+                return notModified;
+            }
+
             List<Dish> dishes = dishesService.getPopularDishes();
             context.getLogger().log("get all popular dishes");
             if(dishes.isEmpty()){
                 return createErrorResponse("No dish available at the moment.", 404);
             }
 
-            String responseBody = objectMapper.writeValueAsString(Map.of("dishes", dishes));
+            String responseBody = JsonSerializer.POPULAR_DISHES.writeValueAsString(Map.of("dishes", dishes));
 
             context.getLogger().log(responseBody);
-            return new APIGatewayProxyResponseEvent()
+            return ConditionalGet.withValidators(apiGatewayProxyRequestEvent, new APIGatewayProxyResponseEvent()
                     .withStatusCode(200)
                     .withHeaders(Map.of("Content-Type", "application/json"))
-                    .withBody(responseBody);
+                    .withBody(responseBody), "popular", dishesService.getCatalogVersion());
         } catch (Exception e){
             context.getLogger().log(e.toString());
             return createErrorResponse("Unexpected error occurred. Please try again later.", 500);
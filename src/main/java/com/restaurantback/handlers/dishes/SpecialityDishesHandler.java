@@ -7,6 +7,8 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.restaurantback.dto.DishInfoDTO;
 import com.restaurantback.services.LocationService;
+import com.restaurantback.utils.JsonSerializer;
+import com.restaurantback.handlers.ConditionalGet;
 
 import java.util.Map;
 
@@ -28,6 +30,11 @@ public class SpecialityDishesHandler implements RequestHandler<APIGatewayProxyRe
                 return createErrorResponse("Missing or invalid location ID.", 400);
             }
 
+            APIGatewayProxyResponseEvent notModified = ConditionalGet.notModified(request, locationId, locationService.getCatalogVersion(), locationService.getDishesCatalogVersion());
+            if (notModified != null) {
+                return notModified;
+            }
+
             context.getLogger().log("Fetching specialty dishes for location ID: " + locationId);
             DishInfoDTO specialityDishes = locationService.getSpecialityDishesByLocationId(locationId);
 
@@ -35,11 +42,11 @@ public class SpecialityDishesHandler implements RequestHandler<APIGatewayProxyRe
                 return createErrorResponse("No specialty dishes found for the given location.", 404);
             }
 
-            String responseBody = objectMapper.writeValueAsString(Map.of("specialityDishes", specialityDishes));
-            return new APIGatewayProxyResponseEvent()
+            String responseBody = JsonSerializer.SPECIALITY_DISHES.writeValueAsString(Map.of("specialityDishes", specialityDishes));
+            return ConditionalGet.withValidators(request, new APIGatewayProxyResponseEvent()
                     .withStatusCode(200)
                     .withHeaders(Map.of("Content-Type", "application/json"))
-                    .withBody(responseBody);
+                    .withBody(responseBody), locationId, locationService.getCatalogVersion(), locationService.getDishesCatalogVersion());
         } catch (Exception e) {
             context.getLogger().log("Error: " + e.getMessage());
             return createErrorResponse("Unexpected error occurred. Please try again later.", 500);
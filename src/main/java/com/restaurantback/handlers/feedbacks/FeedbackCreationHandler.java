@@ -12,10 +12,8 @@ import com.restaurantback.models.Feedback;
 import com.restaurantback.models.User;
 import com.restaurantback.repository.BookingRepository;
 import com.restaurantback.dto.ApiFeedbackDTO;
-import com.restaurantback.dto.CognitoToken;
 import com.restaurantback.services.FeedbackService;
-import com.restaurantback.utils.GetAccessTokenFromRequest;
-import com.restaurantback.utils.GetDataFromJwt;
+import com.restaurantback.utils.TokenClaimsExtractor;
 
 import lombok.Data;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
@@ -65,9 +63,7 @@ public class FeedbackCreationHandler implements RequestHandler<APIGatewayProxyRe
                 throw new IllegalArgumentException("Ratings must be between 1 and 5");
             }
 
-            String idToken = GetAccessTokenFromRequest.getIdToken(request);
-            CognitoToken cognitoToken = GetDataFromJwt.extractDataFromToken(idToken);
-            String email = cognitoToken.getEmail();
+            String email = TokenClaimsExtractor.getPrincipal(request).getEmail();
             context.getLogger().log(email);
 
 
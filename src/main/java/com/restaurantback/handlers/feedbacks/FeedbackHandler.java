@@ -10,6 +10,7 @@ import com.restaurantback.dto.PaginatedResponse;
 import com.restaurantback.models.Feedback;
 import com.restaurantback.services.FeedbackService;
 import com.restaurantback.services.LocationService;
+import com.restaurantback.utils.JsonSerializer;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 import javax.inject.Inject;
@@ -62,7 +63,7 @@ public class FeedbackHandler implements RequestHandler<APIGatewayProxyRequestEve
 
             return new APIGatewayProxyResponseEvent()
                     .withStatusCode(200)
-                    .withBody(objectMapper.writeValueAsString(feedbackPage));
+                    .withBody(JsonSerializer.FEEDBACK_PAGE.writeValueAsString(feedbackPage));
 
         } catch (Exception e) {
             return new APIGatewayProxyResponseEvent()
@@ -7,6 +7,7 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.restaurantback.models.Location;
 import com.restaurantback.services.LocationService;
+import com.restaurantback.handlers.ConditionalGet;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 import javax.inject.Inject;
@@ -29,6 +30,11 @@ public class AllLocationHandler implements RequestHandler<APIGatewayProxyRequest
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
         try{
+            APIGatewayProxyResponseEvent notModified = ConditionalGet.notModified(apiGatewayProxyRequestEvent, "all", getAvailableLocations.getCatalogVersion());
+            if (notModified != null) {
+                return notModified;
+            }
+
             List<Location> locations = getAvailableLocations.getAllLocationsList();
             context.getLogger().log("get all locations");
             if(locations.isEmpty()){
@@ -38,10 +44,10 @@ public class AllLocationHandler implements RequestHandler<APIGatewayProxyRequest
             String responseBody = objectMapper.writeValueAsString(Map.of("locations", locations));
 
             context.getLogger().log(responseBody);
-            return new APIGatewayProxyResponseEvent()
+            return ConditionalGet.withValidators(apiGatewayProxyRequestEvent, new APIGatewayProxyResponseEvent()
                     .withStatusCode(200)
                     .withHeaders(Map.of("Content-Type", "application/json"))
-                    .withBody(responseBody);
+                    .withBody(responseBody), "all", getAvailableLocations.getCatalogVersion());
         } catch (Exception e){
             context.getLogger().log(e.toString());
             return createErrorResponse("Unexpected error occurred. Please try again later.", 500);
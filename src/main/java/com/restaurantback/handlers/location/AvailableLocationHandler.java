@@ -7,6 +7,7 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.restaurantback.dto.LocationSmallDTO;
 import com.restaurantback.services.LocationService;
+import com.restaurantback.handlers.ConditionalGet;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 import javax.inject.Inject;
@@ -28,6 +29,11 @@ public class AvailableLocationHandler implements RequestHandler<APIGatewayProxyR
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent apiGatewayProxyRequestEvent, Context context) {
         try{
+            APIGatewayProxyResponseEvent notModified = ConditionalGet.notModified(apiGatewayProxyRequestEvent, "select-options", getAvailableLocations.getCatalogVersion());
+            if (notModified != null) {
+                return notModified;
+            }
+
             List<LocationSmallDTO> locationSmallDTOS = getAvailableLocations.getAllLocations();
             context.getLogger().log("get all locations");
             if(locationSmallDTOS.isEmpty()){
@@ -37,10 +43,10 @@ public class AvailableLocationHandler implements RequestHandler<APIGatewayProxyR
             String responseBody = objectMapper.writeValueAsString(Map.of("locations", locationSmallDTOS));
 
             context.getLogger().log(responseBody);
-            return new APIGatewayProxyResponseEvent()
+            return ConditionalGet.withValidators(apiGatewayProxyRequestEvent, new APIGatewayProxyResponseEvent()
                     .withStatusCode(200)
                     .withHeaders(Map.of("Content-Type", "application/json"))
-                    .withBody(responseBody);
+                    .withBody(responseBody), "select-options", getAvailableLocations.getCatalogVersion());
         } catch (Exception e){
             context.getLogger().log(e.toString());
             return createErrorResponse("Unexpected error occurred. Please try again later.", 500);
@@ -8,8 +8,7 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.restaurantback.dto.profile.ChangePassword;
 import com.restaurantback.services.CognitoSupport;
-import com.restaurantback.utils.GetAccessTokenFromRequest;
-import com.restaurantback.utils.GetDataFromJwt;
+import com.restaurantback.utils.TokenClaimsExtractor;
 import com.restaurantback.utils.validator.ChangePasswordDtoValidator;
 import org.json.JSONObject;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
@@ -34,10 +33,7 @@ public class PutChangeUsersProfilePasswordHandler extends CognitoSupport impleme
             ChangePassword changePassword = objectMapper.readValue(request.getBody(), ChangePassword.class);
             ChangePasswordDtoValidator.validate(changePassword);
 
-            String idToken = GetAccessTokenFromRequest.getIdToken(request);
-            context.getLogger().log("Id token: " + idToken);
-
-            String email = GetDataFromJwt.extractDataFromToken(idToken).getEmail();
+            String email = TokenClaimsExtractor.getPrincipal(request).getEmail();
 
             String accessToken = cognitoSignIn(email, changePassword.getOldPassword())
                     .authenticationResult()
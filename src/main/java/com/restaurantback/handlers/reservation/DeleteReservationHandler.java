@@ -13,8 +13,6 @@ import javax.validation.ValidationException;
 import java.util.Map;
 import java.util.Objects;
 
-import static com.restaurantback.utils.TokenClaimsExtractor.email;
-
 public class DeleteReservationHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
     private final BookingService bookingService;
@@ -5,15 +5,17 @@ import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.restaurantback.dto.reservation.ReservationDto;
+import com.restaurantback.dto.reservation.ReservationPageDTO;
 import com.restaurantback.handlers.ApiResponse;
 import com.restaurantback.services.BookingService;
 import com.restaurantback.utils.TokenClaimsExtractor;
+import com.restaurantback.utils.JsonSerializer;
 
 import javax.inject.Inject;
-import java.util.List;
-
-import static com.restaurantback.utils.TokenClaimsExtractor.email;
+import javax.validation.ValidationException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
 
 public class GetReservationHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
@@ -33,8 +35,7 @@ public class GetReservationHandler implements RequestHandler<APIGatewayProxyRequ
 
         System.out.println("[INFO] Received request to get reservations");
 
-        bookingService.updateBookings();
-
+        String email;
         try {
 
             try {
@@ -58,13 +59,21 @@ public class GetReservationHandler implements RequestHandler<APIGatewayProxyRequ
 
             //check if email belongs to customer or waiter
 
-            // Fetch the list of reservations for the user
+            // Fetch one page of reservations for the user
 
-            List<ReservationDto> reservationDtoList = bookingService.getListReservationDto(email);
+            Map<String, String> queryParams = Optional.ofNullable(input.getQueryStringParameters())
+                    .orElse(Collections.emptyMap());
+
+            ReservationPageDTO page = bookingService.getReservationPage(email,
+                    queryParams.get("from"),
+                    queryParams.get("to"),
+                    queryParams.get("status"),
+                    parseLimit(queryParams.get("limit")),
+                    queryParams.get("cursor"));
 
             System.out.println("[INFO] Successfully fetched reservations for email: " + email);
 
-            return ApiResponse.success(reservationDtoList);
+            return ApiResponse.success(page, JsonSerializer.RESERVATION_PAGE);
 
         } catch (Exception e) {
 
@@ -78,4 +87,15 @@ public class GetReservationHandler implements RequestHandler<APIGatewayProxyRequ
 
     }
 
+    private Integer parseLimit(String limit) {
+        if (limit == null || limit.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(limit.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException("limit must be a number");
+        }
+    }
+
 }
@@ -16,8 +16,6 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 
-import static com.restaurantback.utils.TokenClaimsExtractor.email;
-
 public class GetWaiterReservationHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
     private final BookingService bookingService;
@@ -33,6 +31,7 @@ public class GetWaiterReservationHandler implements RequestHandler<APIGatewayPro
 
 
 
+        String email;
         try{
             try{
                 System.out.println("Processing to Extract Email");
@@ -49,8 +48,6 @@ public class GetWaiterReservationHandler implements RequestHandler<APIGatewayPro
 
             System.out.println(formatDated);
 
-            bookingService.updateBookings();
-
             Map<String, String> queryParams = request.getQueryStringParameters();
             String date = queryParams != null && queryParams.containsKey("date")
                     ? queryParams.get("date") : formatDated;
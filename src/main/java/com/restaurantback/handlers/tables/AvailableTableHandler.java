@@ -9,6 +9,7 @@ import com.restaurantback.dto.TableAvailableDTO;
 import com.restaurantback.models.TimeSlot;
 import com.restaurantback.services.TableService;
 import com.restaurantback.utils.TimeslotDB;
+import com.restaurantback.utils.JsonSerializer;
 
 import javax.inject.Inject;
 import java.text.SimpleDateFormat;
@@ -82,7 +83,7 @@ public class AvailableTableHandler implements RequestHandler<APIGatewayProxyRequ
             }
 
             // Create response with available tables
-            String responseBody = objectMapper.writeValueAsString(Map.of("tables", availableTables));
+            String responseBody = JsonSerializer.TABLES.writeValueAsString(Map.of("tables", availableTables));
 
             return new APIGatewayProxyResponseEvent()
                     .withStatusCode(200)
@@ -9,15 +9,13 @@ import com.restaurantback.dto.ReservationByWaiterDTO;
 import com.restaurantback.dto.WaiterBookingDTO;
 import com.restaurantback.handlers.ApiResponse;
 import com.restaurantback.services.ReservationService;
+import com.restaurantback.utils.TimeOfDay;
 import com.restaurantback.utils.TokenClaimsExtractor;
 import org.json.JSONObject;
 
-import java.time.*;
 import java.util.Map;
 import java.util.UUID;
 
-import static com.restaurantback.utils.TokenClaimsExtractor.email;
-
 public class WaiterReservationHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
     private final ReservationService reservationService;
@@ -30,6 +28,7 @@ public class WaiterReservationHandler implements RequestHandler<APIGatewayProxyR
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        String email;
         try {
             try {
                 System.out.println("Processing to Extract Email");
@@ -54,16 +53,7 @@ public class WaiterReservationHandler implements RequestHandler<APIGatewayProxyR
             String dateStr = waiterBookingDTO.getDate();
             String timeStr = waiterBookingDTO.getTimeFrom();
 
-            LocalDate date = LocalDate.parse(dateStr);
-            LocalTime time = LocalTime.parse(timeStr);
-            LocalDateTime inputDateTime = LocalDateTime.of(date, time);
-
-            ZoneId zone = ZoneId.of("Asia/Kolkata");
-            ZonedDateTime inputZonedDateTime = inputDateTime.atZone(zone);
-
-            ZonedDateTime now = ZonedDateTime.now(zone);
-
-            if (inputZonedDateTime.isBefore(now) || inputZonedDateTime.isEqual(now)) {
+            if (TimeOfDay.epochMinute(dateStr, timeStr) <= TimeOfDay.nowEpochMinute()) {
                 return new APIGatewayProxyResponseEvent()
                         .withStatusCode(400)
                         .withHeaders(Map.of("Content-Type", "application/json"))
@@ -0,0 +1,70 @@
+package com.restaurantback.models;
+
+import software.amazon.awssdk.enhanced.dynamodb.AttributeConverter;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeValueType;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the booked attribute (date -> {slot: true}) to date -> slot list for Table and Waiter.
+ * Dates still stored as a list or string set are read as well, so the models do not care whether
+ * an item has been migrated. Holds count as booked until they expire.
+ */
+public class BookedSlotsConverter implements AttributeConverter<Map<String, List<String>>> {
+
+    @Override
+    public AttributeValue transformFrom(Map<String, List<String>> booked) {
+        Map<String, AttributeValue> dates = new HashMap<>();
+        if (booked != null) {
+            booked.forEach((date, slots) -> {
+                Map<String, AttributeValue> slotMap = new HashMap<>();
+                slots.forEach(slot -> slotMap.put(slot, AttributeValue.builder().bool(true).build()));
+                dates.put(date, AttributeValue.builder().m(slotMap).build());
+            });
+        }
+        return AttributeValue.builder().m(dates).build();
+    }
+
+    @Override
+    public Map<String, List<String>> transformTo(AttributeValue input) {
+        Map<String, List<String>> booked = new HashMap<>();
+        if (input == null || !input.hasM()) {
+            return booked;
+        }
+        input.m().forEach((date, value) -> {
+            List<String> slots = new ArrayList<>();
+            if (value.hasM()) {
+                long now = System.currentTimeMillis() / 1000;
+                value.m().forEach((slot, entry) -> {
+                    // a hold ({hold, expires}) only blocks the slot until it expires
+                    AttributeValue expires = entry.hasM() ? entry.m().get("expires") : null;
+                    if (expires == null || Long.parseLong(expires.n()) >= now) {
+                        slots.add(slot);
+                    }
+                });
+            } else if (value.hasSs()) {
+                slots.addAll(value.ss());
+            } else if (value.hasL()) {
+                value.l().forEach(slot -> slots.add(slot.s()));
+            }
+            booked.put(date, slots);
+        });
+        return booked;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public EnhancedType<Map<String, List<String>>> type() {
+        return EnhancedType.mapOf(EnhancedType.of(String.class), EnhancedType.listOf(String.class));
+    }
+
+    @Override
+    public AttributeValueType attributeValueType() {
+        return AttributeValueType.M;
+    }
+}
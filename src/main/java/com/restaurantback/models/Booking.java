@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
 
 
@@ -15,6 +17,11 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortK
 @Data
 @DynamoDbBean
 public class Booking {
+    // GSI: partition key waiter_id, sort key date_from ("yyyy-MM-dd#HH:mm"), a waiter's day in start order
+    public static final String WAITER_AGENDA_INDEX = "waiter_id-date_from-index";
+    // GSI: partition key end_bucket ("yyyy-MM-dd#HH" of the end), sort key to, bookings by end time
+    public static final String END_BUCKET_INDEX = "end_bucket-to-index";
+
     private String reservationId;
     private String locationId;      // Add this
     private String tableId;
@@ -42,6 +49,7 @@ public class Booking {
         return tableId;
     }
 
+    @DynamoDbSecondaryPartitionKey(indexNames = WAITER_AGENDA_INDEX)
     @DynamoDbAttribute("waiter_id")
     public String getWaiterId() {
         return waiterId;
@@ -52,11 +60,52 @@ public class Booking {
         return timeFrom;
     }
 
+    @DynamoDbSecondarySortKey(indexNames = END_BUCKET_INDEX)
     @DynamoDbAttribute("to")
     public String getTimeTo() {
         return timeTo;
     }
 
+    /**
+     * Sort key of the waiter agenda index, derived from date and timeFrom so every put of the bean
+     * keeps it in step; the stored value is never read back.
+     */
+    @JsonIgnore
+    @DynamoDbSecondarySortKey(indexNames = WAITER_AGENDA_INDEX)
+    @DynamoDbAttribute("date_from")
+    public String getDateFrom() {
+        return date == null || timeFrom == null ? null : agendaKey(date, timeFrom);
+    }
+
+    public void setDateFrom(String dateFrom) {
+        // derived, see getDateFrom
+    }
+
+    public static String agendaKey(String date, String timeFrom) {
+        return date + "#" + timeFrom;
+    }
+
+    /**
+     * Partition key of the end time index, derived from date and timeTo like getDateFrom.
+     */
+    @JsonIgnore
+    @DynamoDbSecondaryPartitionKey(indexNames = END_BUCKET_INDEX)
+    @DynamoDbAttribute("end_bucket")
+    public String getEndBucket() {
+        return date == null || timeTo == null || timeTo.length() < 2 ? null : endBucket(date, timeTo.substring(0, 2));
+    }
+
+    public void setEndBucket(String endBucket) {
+        // derived, see getEndBucket
+    }
+
+    /**
+     * Bucket of the bookings on the date that end within the hour ("HH").
+     */
+    public static String endBucket(String date, String hour) {
+        return date + "#" + hour;
+    }
+
     @DynamoDbAttribute("guests")
     public String getGuestsNumber() {
         return guestsNumber;
@@ -0,0 +1,27 @@
+package com.restaurantback.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class IdempotencyRecord {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    private String key;
+    private String status;
+    private String requestHash;
+    private Integer statusCode;
+    private Map<String, String> headers;
+    private String body;
+
+    public boolean isCompleted() {
+        return COMPLETED.equals(status);
+    }
+}
@@ -3,6 +3,7 @@ package com.restaurantback.models;
 import lombok.*;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbConvertedBy;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
@@ -33,6 +34,11 @@ public class Table {
         return locationId;
     }
 
+    @DynamoDbConvertedBy(BookedSlotsConverter.class)
+    public Map<String, List<String>> getBooked() {
+        return booked;
+    }
+
     // Convert availability map when saving to DynamoDB
     public Map<String, AttributeValue> toDynamoItem() {
         Map<String, AttributeValue> availabilityMap = new HashMap<>();
@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbConvertedBy;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
 
@@ -38,6 +39,11 @@ public class Waiter {
         return locationId;
     }
 
+    @DynamoDbConvertedBy(BookedSlotsConverter.class)
+    public Map<String, List<String>> getBooked() {
+        return booked;
+    }
+
     @DynamoDbAttribute("shift_start")
     public String getShiftStart(){
         return shiftStart;
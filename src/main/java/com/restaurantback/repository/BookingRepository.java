@@ -9,21 +9,33 @@ import javax.inject.Inject;
 
 import com.restaurantback.exceptions.reservationException.NotFoundException;
 import com.restaurantback.models.Booking;
+import com.restaurantback.utils.AppLogger;
+import com.restaurantback.utils.TimeOfDay;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
 
 import java.awt.print.Book;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BookingRepository {
+    private static final AppLogger logger = AppLogger.getLogger(BookingRepository.class);
+
     private final AmazonDynamoDB dynamoDB;
     private final DynamoDbEnhancedClient enhancedClient;
     private final String bookingTable = System.getenv("bookingTable"); // Ensure the table name matches DynamoDB
+    // GSI: partition key user_email, sort key date ("yyyy-MM-dd" sorts chronologically as a string)
+    private static final String USER_EMAIL_DATE_INDEX = "user_email-date-index";
+    private static final int MAX_KNOWN_BOOKING_IDS = 10_000;
+
+    // ids of bookings known to exist in this container; cleared when full rather than evicted one by one
+    private final Set<String> knownBookingIds = ConcurrentHashMap.newKeySet();
 
     @Inject
     public BookingRepository(AmazonDynamoDB dynamoDB, DynamoDbEnhancedClient enhancedClient) {
@@ -31,18 +43,52 @@ public class BookingRepository {
         this.enhancedClient = enhancedClient;
     }
 
-    public List<Map<String, AttributeValue>> getBookingsByEmail(String userEmail) {
-        System.out.println("In Repository Layer getReservations line 25 before the actual query");
-        ScanRequest scanRequest = new ScanRequest()
+    /**
+     * One page of the user's bookings, newest date first, from the user_email/date index. The date
+     * range is part of the key condition; the status filter is applied by DynamoDB after the page
+     * is read, so a filtered page can come back short while still having a LastEvaluatedKey.
+     */
+    public QueryResult getBookingsByEmail(String userEmail, String dateFrom, String dateTo, String status,
+                                          int limit, Map<String, AttributeValue> exclusiveStartKey) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":email", new AttributeValue().withS(userEmail));
+        StringBuilder keyCondition = new StringBuilder("user_email = :email");
+        if (dateFrom != null || dateTo != null) {
+            names.put("#date", "date");
+        }
+        if (dateFrom != null && dateTo != null) {
+            keyCondition.append(" AND #date BETWEEN :from AND :to");
+            values.put(":from", new AttributeValue().withS(dateFrom));
+            values.put(":to", new AttributeValue().withS(dateTo));
+        } else if (dateFrom != null) {
+            keyCondition.append(" AND #date >= :from");
+            values.put(":from", new AttributeValue().withS(dateFrom));
+        } else if (dateTo != null) {
+            keyCondition.append(" AND #date <= :to");
+            values.put(":to", new AttributeValue().withS(dateTo));
+        }
+
+        QueryRequest queryRequest = new QueryRequest()
                 .withTableName(bookingTable)
-                .withFilterExpression("user_email = :email")
-                .withExpressionAttributeValues(Map.of(
-                        ":email", new AttributeValue().withS(userEmail)
-                ));
-        System.out.println("Before Scan in Repository");
-        ScanResult scanResult = dynamoDB.scan(scanRequest);
-        System.out.println("After Scan in Repository");
-        return scanResult.getItems();
+                .withIndexName(USER_EMAIL_DATE_INDEX)
+                .withKeyConditionExpression(keyCondition.toString())
+                .withScanIndexForward(false)
+                .withLimit(limit)
+                .withExclusiveStartKey(exclusiveStartKey);
+        if (status != null) {
+            names.put("#status", "status");
+            values.put(":status", new AttributeValue().withS(status));
+            queryRequest.withFilterExpression("#status = :status");
+        }
+        if (!names.isEmpty()) {
+            queryRequest.withExpressionAttributeNames(names);
+        }
+        queryRequest.withExpressionAttributeValues(values);
+
+        QueryResult result = dynamoDB.query(queryRequest);
+        logger.debug("Queried {} bookings of {} (scanned {})", result.getCount(), userEmail, result.getScannedCount());
+        return result;
     }
 
 
@@ -51,16 +97,12 @@ public class BookingRepository {
                 "booking_id", new AttributeValue().withS(reservationId),
                 "user_email", new AttributeValue().withS(email)
         );
-        System.out.println("the key to Check: "+key);
-        System.out.println("Before Getting the Reservation");
         GetItemRequest request = new GetItemRequest()
                 .withTableName(bookingTable)
                 .withKey(key)
                 .withProjectionExpression("booking_id");
         Map<String, AttributeValue> result = dynamoDB.getItem(request).getItem();
-        System.out.println("After Getting teh reservation_id");
-
-        System.out.println("From does ReservationExist: "+result);
+        logger.debug("Booking {} of {} {}", reservationId, email, result != null && !result.isEmpty() ? "found" : "not found");
 
         return result != null && !result.isEmpty();
     }
@@ -105,27 +147,48 @@ public class BookingRepository {
 
 
     public Map<String,AttributeValue> createBooking(Map<String, AttributeValue> reservationMap) {
-        PutItemRequest putItemRequest = new PutItemRequest().withTableName(bookingTable).withItem(reservationMap);
+        PutItemRequest putItemRequest = new PutItemRequest().withTableName(bookingTable).withItem(withIndexKeys(reservationMap));
         dynamoDB.putItem(putItemRequest);
+        remember(reservationMap.get("booking_id").getS());
         return reservationMap;
     }
 
+    /**
+     * Whether a booking with the id exists. Bookings are never deleted (cancelling only sets the
+     * status), so ids once seen are remembered per container and answered without a read; anything
+     * else is one keyed Query returning at most one projected key.
+     */
     public boolean doesBookingExist(String reservationId) {
-        System.out.println("Checking if booking exists with ID: " + reservationId);
-
-        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
-        expressionAttributeValues.put(":bookingId", new AttributeValue().withS(reservationId));
+        if (knownBookingIds.contains(reservationId)) {
+            return true;
+        }
+        boolean exists = firstByBookingId(reservationId, "booking_id") != null;
+        if (exists) {
+            remember(reservationId);
+        }
+        logger.debug("Booking {} for ID: {}", (exists ? "found" : "not found"), reservationId);
+        return exists;
+    }
 
-        ScanRequest scanRequest = new ScanRequest()
+    /**
+     * The first item stored under the booking id, with only the projected attributes when projection
+     * is not null; null when there is none.
+     */
+    private Map<String, AttributeValue> firstByBookingId(String bookingId, String projection) {
+        List<Map<String, AttributeValue>> items = dynamoDB.query(new QueryRequest()
                 .withTableName(bookingTable)
-                .withFilterExpression("booking_id = :bookingId")
-                .withExpressionAttributeValues(expressionAttributeValues)
-                .withProjectionExpression("booking_id"); // Only fetch the ID
+                .withKeyConditionExpression("booking_id = :b_id")
+                .withExpressionAttributeValues(Map.of(":b_id", new AttributeValue().withS(bookingId)))
+                .withProjectionExpression(projection)
+                .withLimit(1)).getItems();
+        return items == null || items.isEmpty() ? null : items.get(0);
+    }
 
-        ScanResult result = dynamoDB.scan(scanRequest);
-        boolean exists = !result.getItems().isEmpty();
-        System.out.println("Booking " + (exists ? "found" : "not found") + " for ID: " + reservationId);
-        return exists;
+    private void remember(String bookingId) {
+        if (knownBookingIds.size() >= MAX_KNOWN_BOOKING_IDS) {
+            knownBookingIds.clear();
+        }
+        knownBookingIds.add(bookingId);
     }
 
     public AttributeValue getAssignedWaiterById(String bookingId){
@@ -139,41 +202,114 @@ public class BookingRepository {
     }
 
     public Map<String,AttributeValue> getBookingById(String bookingId){
-        QueryRequest queryRequest = new QueryRequest(bookingTable).withKeyConditionExpression("booking_id = :b_id")
-                .withExpressionAttributeValues(Map.of(
-                        ":b_id", new AttributeValue(bookingId)
-                ));
-
-        List<Map<String, AttributeValue>> items = dynamoDB.query(queryRequest).getItems();
-        return items==null?null:items.getFirst();
+        return firstByBookingId(bookingId, null);
     }
 
     public String getReservationLocationWithId(String bookingId) {
-        List<Booking> bookings = getAllBookings();
-        String locationId = bookings.stream()
-                .filter(booking -> booking.getReservationId().equalsIgnoreCase(bookingId))
-                .map(booking -> booking.getLocationId())
-                .findFirst()
-                .orElse(null);
-
-        if(locationId == null){
+        // not cached: moving a booking can change its location
+        Map<String, AttributeValue> item = firstByBookingId(bookingId, "booking_id, locationId");
+        if (item == null || item.get("locationId") == null) {
             throw new NotFoundException("reservation not found");
         }
-
-        return locationId;
+        remember(bookingId);
+        return item.get("locationId").getS();
     }
 
-    public List<Booking> getBookingsByIdAndDate(String waiterId, String date) {
-        DynamoDbTable<Booking> table = enhancedClient.table(bookingTable, TableSchema.fromBean(Booking.class));
+    /**
+     * The waiter's bookings on the date in start order, read from the waiter agenda index. timeFrom
+     * ("HH:mm") narrows the key condition to one start time; tableId is a filter on the result.
+     */
+    public List<Booking> getWaiterAgenda(String waiterId, String date, String timeFrom, String tableId) {
+        DynamoDbIndex<Booking> agenda = enhancedClient.table(bookingTable, TableSchema.fromBean(Booking.class))
+                .index(Booking.WAITER_AGENDA_INDEX);
+
+        QueryConditional queryConditional = timeFrom != null
+                ? QueryConditional.keyEqualTo(Key.builder()
+                        .partitionValue(waiterId)
+                        .sortValue(Booking.agendaKey(date, timeFrom))
+                        .build())
+                : QueryConditional.sortBeginsWith(Key.builder()
+                        .partitionValue(waiterId)
+                        .sortValue(Booking.agendaKey(date, ""))
+                        .build());
+
+        QueryEnhancedRequest.Builder request = QueryEnhancedRequest.builder().queryConditional(queryConditional);
+        if (tableId != null) {
+            request.filterExpression(Expression.builder()
+                    .expression("table_id = :table")
+                    .expressionValues(Map.of(":table", software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder().s(tableId).build()))
+                    .build());
+        }
+
         List<Booking> bookings = new ArrayList<>();
-        table.scan().items().forEach(bookings::add);
+        agenda.query(request.build()).forEach(page -> bookings.addAll(page.items()));
+        logger.dump("bookings", () -> bookings);
+        return bookings;
+    }
 
-        System.out.println(bookings);
+    /**
+     * Sets the derived index keys (date_from, end_bucket) on bookings written before those indexes
+     * existed, so they show up in them. Each update is conditional on date, from and to being
+     * unchanged since the scan; a booking edited meanwhile was rewritten with the keys anyway.
+     * Returns the number of bookings updated.
+     */
+    public int backfillIndexKeys() {
+        int updated = 0;
+        Map<String, String> names = Map.of("#date", "date", "#from", "from", "#to", "to");
+        Map<String, AttributeValue> lastKey = null;
+        do {
+            ScanResult result = dynamoDB.scan(new ScanRequest()
+                    .withTableName(bookingTable)
+                    .withProjectionExpression("booking_id, user_email, #date, #from, #to")
+                    .withFilterExpression("(attribute_not_exists(date_from) OR attribute_not_exists(end_bucket))"
+                            + " AND attribute_exists(#date) AND attribute_exists(#from) AND attribute_exists(#to)")
+                    .withExpressionAttributeNames(names)
+                    .withExclusiveStartKey(lastKey));
+            for (Map<String, AttributeValue> item : result.getItems()) {
+                Map<String, AttributeValue> keys = withIndexKeys(new HashMap<>(item));
+                try {
+                    dynamoDB.updateItem(new UpdateItemRequest()
+                            .withTableName(bookingTable)
+                            .withKey(Map.of("booking_id", item.get("booking_id"), "user_email", item.get("user_email")))
+                            .withUpdateExpression("SET date_from = :dateFrom, end_bucket = :endBucket")
+                            .withConditionExpression("#date = :date AND #from = :from AND #to = :to")
+                            .withExpressionAttributeNames(names)
+                            .withExpressionAttributeValues(Map.of(
+                                    ":dateFrom", keys.get("date_from"),
+                                    ":endBucket", keys.get("end_bucket"),
+                                    ":date", item.get("date"),
+                                    ":from", item.get("from"),
+                                    ":to", item.get("to"))));
+                    updated++;
+                } catch (ConditionalCheckFailedException e) {
+                    logger.debug("Booking {} changed during backfill, skipping it", item.get("booking_id").getS());
+                }
+            }
+            lastKey = result.getLastEvaluatedKey();
+        } while (lastKey != null && !lastKey.isEmpty());
+        logger.info("[backfillIndexKeys] Backfilled {} bookings", updated);
+        return updated;
+    }
 
-        return bookings.stream()
-                .filter(booking -> booking.getWaiterId().equalsIgnoreCase(waiterId))
-                .filter(booking -> booking.getDate().equalsIgnoreCase(date))
-                .toList();
+    /**
+     * Sets the derived index keys, as the Booking bean computes them, on a low-level booking item
+     * about to be put: date_from for the waiter agenda and end_bucket for the end time index.
+     */
+    static Map<String, AttributeValue> withIndexKeys(Map<String, AttributeValue> item) {
+        String date = stringOf(item.get("date"));
+        String from = stringOf(item.get("from"));
+        String to = stringOf(item.get("to"));
+        if (date != null && from != null) {
+            item.put("date_from", new AttributeValue().withS(Booking.agendaKey(date, from)));
+        }
+        if (date != null && to != null && to.length() >= 2) {
+            item.put("end_bucket", new AttributeValue().withS(Booking.endBucket(date, to.substring(0, 2))));
+        }
+        return item;
+    }
+
+    private static String stringOf(AttributeValue value) {
+        return value == null ? null : value.getS();
     }
 
     public List<Booking> getAllBookings(){
@@ -184,6 +320,30 @@ public class BookingRepository {
         return bookings;
     }
 
+    /**
+     * Sets the status of the booking, unless it has been cancelled (or deleted) in the meantime.
+     * Only status is written, so nothing else the booking was read with can be overwritten.
+     */
+    public boolean updateStatus(Booking booking, String status) {
+        try {
+            dynamoDB.updateItem(new UpdateItemRequest()
+                    .withTableName(bookingTable)
+                    .withKey(Map.of(
+                            "booking_id", new AttributeValue().withS(booking.getReservationId()),
+                            "user_email", new AttributeValue().withS(booking.getUserEmail())))
+                    .withUpdateExpression("SET #status = :status")
+                    .withConditionExpression("attribute_exists(booking_id) AND #status <> :cancelled")
+                    .withExpressionAttributeNames(Map.of("#status", "status"))
+                    .withExpressionAttributeValues(Map.of(
+                            ":status", new AttributeValue().withS(status),
+                            ":cancelled", new AttributeValue().withS("CANCELLED"))));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            logger.debug("Booking {} was cancelled, leaving its status", booking.getReservationId());
+            return false;
+        }
+    }
+
     public void saveBooking(Booking booking) {
         DynamoDbTable<Booking> table = enhancedClient.table(
                 bookingTable,  // <-- replace with your actual table name
@@ -193,27 +353,19 @@ public class BookingRepository {
         table.putItem(booking);
     }
 
-    public Booking makeBookingForVisitor(WaiterBookingDTO waiterBookingDTO, String waiterId, String id, String locationId) {
-        Booking booking = new Booking();
-        booking.setReservationId(id);
-        booking.setLocationId(locationId);
-        booking.setTableId(waiterBookingDTO.getTableNumber());
-        booking.setDate(waiterBookingDTO.getDate());
-        booking.setWaiterId(waiterId);
-        booking.setTimeFrom(waiterBookingDTO.getTimeFrom());
-        booking.setTimeTo(waiterBookingDTO.getTimeTo());
-        booking.setGuestsNumber(waiterBookingDTO.getGuestsNumber());
-        booking.setUserEmail("dummy");
-        booking.setByCustomer(false);
-        booking.setStatus("RESERVED");
-        booking.setFeedbackId("no_feedback");
+    /**
+     * A reservation made by a waiter for a walk-in visitor; nothing is written until it is passed to
+     * ReservationTransactions together with its slots.
+     */
+    public Booking newVisitorBooking(WaiterBookingDTO waiterBookingDTO, String waiterId, String id, String locationId) {
+        return newWaiterBooking(waiterBookingDTO, waiterId, id, locationId, "dummy");
+    }
 
-        DynamoDbTable<Booking> table = enhancedClient.table(bookingTable, TableSchema.fromBean(Booking.class));
-        table.putItem(booking);
-        return booking;
+    public Booking newCustomerBooking(WaiterBookingDTO waiterBookingDTO, String waiterId, String id, String locationId) {
+        return newWaiterBooking(waiterBookingDTO, waiterId, id, locationId, waiterBookingDTO.getClientEmail());
     }
 
-    public Booking makeBookingForCustomer(WaiterBookingDTO waiterBookingDTO, String waiterId, String id, String locationId) {
+    private Booking newWaiterBooking(WaiterBookingDTO waiterBookingDTO, String waiterId, String id, String locationId, String userEmail) {
         Booking booking = new Booking();
         booking.setReservationId(id);
         booking.setLocationId(locationId);
@@ -223,33 +375,67 @@ public class BookingRepository {
         booking.setTimeFrom(waiterBookingDTO.getTimeFrom());
         booking.setTimeTo(waiterBookingDTO.getTimeTo());
         booking.setGuestsNumber(waiterBookingDTO.getGuestsNumber());
-        booking.setUserEmail(waiterBookingDTO.getClientEmail());
+        booking.setUserEmail(userEmail);
         booking.setByCustomer(false);
         booking.setStatus("RESERVED");
         booking.setFeedbackId("no_feedback");
-
-        DynamoDbTable<Booking> table = enhancedClient.table(bookingTable, TableSchema.fromBean(Booking.class));
-        table.putItem(booking);
         return booking;
     }
 
+    /**
+     * The booking as a low-level item, with the attribute names of the Booking bean.
+     */
+    public static Map<String, AttributeValue> toItem(Booking booking) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("booking_id", new AttributeValue().withS(booking.getReservationId()));
+        item.put("user_email", new AttributeValue().withS(booking.getUserEmail()));
+        item.put("table_id", new AttributeValue().withS(booking.getTableId()));
+        item.put("locationId", new AttributeValue().withS(booking.getLocationId()));
+        item.put("date", new AttributeValue().withS(booking.getDate()));
+        item.put("from", new AttributeValue().withS(booking.getTimeFrom()));
+        item.put("to", new AttributeValue().withS(booking.getTimeTo()));
+        item.put("guests", new AttributeValue().withS(booking.getGuestsNumber()));
+        item.put("waiter_id", new AttributeValue().withS(booking.getWaiterId()));
+        item.put("status", new AttributeValue().withS(booking.getStatus()));
+        item.put("byCustomer", new AttributeValue().withBOOL(booking.isByCustomer()));
+        item.put("feedbackId", new AttributeValue().withS(booking.getFeedbackId()));
+        return item;
+    }
+
+    /**
+     * Links the feedback to the reservation. The booking is found by its partition key and only
+     * feedbackId is updated, so a concurrent status change is not overwritten.
+     */
     public void setFeedback(String reservationId, String id) {
-        DynamoDbTable<Booking> table = enhancedClient.table(bookingTable, TableSchema.fromBean(Booking.class));
-        List<Booking> bookings = new ArrayList<>();
-        table.scan().items().forEach(bookings::add);
+        List<Map<String, AttributeValue>> items = dynamoDB.query(new QueryRequest()
+                .withTableName(bookingTable)
+                .withKeyConditionExpression("booking_id = :b_id")
+                .withExpressionAttributeValues(Map.of(":b_id", new AttributeValue().withS(reservationId)))
+                .withProjectionExpression("booking_id, user_email")
+                .withLimit(1)).getItems();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Booking not found for reservationId: " + reservationId);
+        }
 
-        Booking booking = bookings.stream()
-                .filter(booking1 -> booking1.getReservationId().equalsIgnoreCase(reservationId))
+        dynamoDB.updateItem(new UpdateItemRequest()
+                .withTableName(bookingTable)
+                .withKey(items.get(0))
+                .withUpdateExpression("SET feedbackId = :feedbackId")
+                .withConditionExpression("attribute_exists(booking_id)")
+                .withExpressionAttributeValues(Map.of(":feedbackId", new AttributeValue().withS(id))));
+        logger.debug("Set feedback {} on booking {}", id, reservationId);
+    }
+
+    /**
+     * The booking with the reservation id, read by its partition key, or null.
+     */
+    public Booking findBookingById(String reservationId) {
+        DynamoDbTable<Booking> table = enhancedClient.table(bookingTable, TableSchema.fromBean(Booking.class));
+        return table.query(r -> r.queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(reservationId).build())).limit(1))
+                .items()
+                .stream()
                 .findFirst()
                 .orElse(null);
-
-        if (booking != null) {
-            System.out.println(booking.getFeedbackId());
-            booking.setFeedbackId(id);
-            table.putItem(booking);
-        } else {
-            throw new IllegalArgumentException("Booking not found for reservationId: " + reservationId);
-        }
     }
 
     public List<Booking> findBookingsByDate(String date) {
@@ -261,29 +447,25 @@ public class BookingRepository {
                 .toList();
     }
 
-    public List<Booking> findBookingByDateAndTime(String inputStartTime, String inputEndTime) {
-        try {
-            List<Booking> bookings = getAllBookings();
-
-            System.out.println(bookings);
-            DateTimeFormatter formatterWithSeconds = DateTimeFormatter.ofPattern("HH:mm:ss");
-            DateTimeFormatter formatterWithoutSeconds = DateTimeFormatter.ofPattern("HH:mm");
-
-            LocalTime startTime = LocalTime.parse(inputStartTime, formatterWithSeconds);
-            LocalTime endTime = LocalTime.parse(inputEndTime, formatterWithSeconds);
-            System.out.println(startTime +" to " + endTime);
-
-            bookings = bookings.stream()
-                    .filter(booking -> {
-                        LocalTime bookingEndTime = LocalTime.parse(booking.getTimeTo(), formatterWithoutSeconds);
-                        return !bookingEndTime.isBefore(startTime) && !bookingEndTime.isAfter(endTime);
-                    })
-                    .collect(Collectors.toList());
-            System.out.println(bookings);
-            return bookings;
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Date and time parser error", e);
+    /**
+     * Bookings on the date whose end time falls within [startMinute, endMinute], both minutes of the
+     * day. Reads one end_bucket partition per hour the window touches, each narrowed to the window
+     * by a range on to, so the cost follows the number of bookings ending in the window.
+     */
+    public List<Booking> findBookingByDateAndTime(String date, short startMinute, short endMinute) {
+        DynamoDbIndex<Booking> byEnd = enhancedClient.table(bookingTable, TableSchema.fromBean(Booking.class))
+                .index(Booking.END_BUCKET_INDEX);
+        logger.debug("{} {} to {}", date, TimeOfDay.format(startMinute), TimeOfDay.format(endMinute));
+
+        List<Booking> endingInWindow = new ArrayList<>();
+        for (int hour = startMinute / 60; hour <= endMinute / 60; hour++) {
+            String bucket = Booking.endBucket(date, TimeOfDay.format(hour * 60).substring(0, 2));
+            QueryConditional window = QueryConditional.sortBetween(
+                    Key.builder().partitionValue(bucket).sortValue(TimeOfDay.format(Math.max(startMinute, hour * 60))).build(),
+                    Key.builder().partitionValue(bucket).sortValue(TimeOfDay.format(Math.min(endMinute, hour * 60 + 59))).build());
+            byEnd.query(r -> r.queryConditional(window)).forEach(page -> endingInWindow.addAll(page.items()));
         }
+        logger.dump("endingInWindow", () -> endingInWindow);
+        return endingInWindow;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package com.restaurantback.repository;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.*;
+import com.restaurantback.exceptions.reservationException.ConflictException;
+import com.restaurantback.exceptions.reservationException.TooManyRequestsException;
+import com.restaurantback.utils.AppLogger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The table holds each caller has open, so one caller cannot keep a whole floor on hold. Each caller
+ * is one item (holder, holds: {holdId: expiresAt}, version, expires_at) updated with an optimistic
+ * check on version; expired holds are dropped whenever the item is written, and expires_at is meant
+ * to be the table's TTL so idle callers clean themselves up.
+ */
+public class HoldRepository {
+    private static final AppLogger logger = AppLogger.getLogger(HoldRepository.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final AmazonDynamoDB dynamoDB;
+    private final String tableName = System.getenv("holdTable");
+
+    public HoldRepository(AmazonDynamoDB dynamoDB) {
+        this.dynamoDB = dynamoDB;
+    }
+
+    /**
+     * Records holdId for holder until expiresAt (epoch seconds). TooManyRequestsException when the
+     * holder already has maxActive holds that have not expired, with the wait until the first does.
+     */
+    public void reserve(String holder, String holdId, long expiresAt, int maxActive) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long now = System.currentTimeMillis() / 1000;
+            Map<String, AttributeValue> item = load(holder);
+            Map<String, AttributeValue> holds = activeHolds(item, now);
+
+            if (holds.size() >= maxActive) {
+                long firstExpiry = holds.values().stream().mapToLong(value -> Long.parseLong(value.getN())).min().orElse(now);
+                throw new TooManyRequestsException("You can hold at most " + maxActive + " tables at a time", Math.max(1, firstExpiry - now));
+            }
+            holds.put(holdId, new AttributeValue().withN(String.valueOf(expiresAt)));
+
+            try {
+                save(holder, holds, versionOf(item));
+                return;
+            } catch (ConditionalCheckFailedException e) {
+                logger.debug("Holds of {} changed concurrently, retrying", holder);
+            }
+        }
+        throw new ConflictException("Holds are being updated concurrently, please retry");
+    }
+
+    /**
+     * Forgets holdId once it has been booked or could not be placed. Giving up is harmless: the
+     * entry stops counting when it expires.
+     */
+    public void release(String holder, String holdId) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Map<String, AttributeValue> item = load(holder);
+            Map<String, AttributeValue> holds = activeHolds(item, System.currentTimeMillis() / 1000);
+            if (holds.remove(holdId) == null) {
+                return;
+            }
+
+            try {
+                save(holder, holds, versionOf(item));
+                return;
+            } catch (ConditionalCheckFailedException e) {
+                logger.debug("Holds of {} changed concurrently, retrying", holder);
+            }
+        }
+        logger.debug("Leaving hold {} of {} to expire", holdId, holder);
+    }
+
+    private Map<String, AttributeValue> load(String holder) {
+        return dynamoDB.getItem(new GetItemRequest()
+                .withTableName(tableName)
+                .withKey(Map.of("holder", new AttributeValue().withS(holder)))
+                .withConsistentRead(true)).getItem();
+    }
+
+    private static Map<String, AttributeValue> activeHolds(Map<String, AttributeValue> item, long now) {
+        Map<String, AttributeValue> holds = new HashMap<>();
+        if (item == null || item.get("holds") == null || item.get("holds").getM() == null) {
+            return holds;
+        }
+        item.get("holds").getM().forEach((holdId, expiresAt) -> {
+            if (Long.parseLong(expiresAt.getN()) > now) {
+                holds.put(holdId, expiresAt);
+            }
+        });
+        return holds;
+    }
+
+    private static String versionOf(Map<String, AttributeValue> item) {
+        return item == null || item.get("version") == null ? null : item.get("version").getN();
+    }
+
+    private void save(String holder, Map<String, AttributeValue> holds, String previousVersion) {
+        long version = previousVersion == null ? 1 : Long.parseLong(previousVersion) + 1;
+        long lastExpiry = holds.values().stream().mapToLong(value -> Long.parseLong(value.getN())).max().orElse(System.currentTimeMillis() / 1000);
+
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("holder", new AttributeValue().withS(holder));
+        item.put("holds", new AttributeValue().withM(holds));
+        item.put("version", new AttributeValue().withN(String.valueOf(version)));
+        item.put("expires_at", new AttributeValue().withN(String.valueOf(lastExpiry)));
+
+        PutItemRequest request = new PutItemRequest().withTableName(tableName).withItem(item);
+        if (previousVersion == null) {
+            request.withConditionExpression("attribute_not_exists(holder)");
+        } else {
+            request.withConditionExpression("version = :version")
+                    .withExpressionAttributeValues(Map.of(":version", new AttributeValue().withN(previousVersion)));
+        }
+        dynamoDB.putItem(request);
+    }
+}
@@ -0,0 +1,117 @@
+package com.restaurantback.repository;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.*;
+import com.restaurantback.models.IdempotencyRecord;
+import com.restaurantback.utils.AppLogger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Idempotency keys for the booking endpoints. A key is claimed with a conditional put before the
+ * booking runs and completed with the response afterwards; expires_at is the table's TTL attribute.
+ */
+public class IdempotencyRepository {
+    private static final AppLogger logger = AppLogger.getLogger(IdempotencyRepository.class);
+
+    private static final long TTL_SECONDS = 24 * 60 * 60;
+
+    // an IN_PROGRESS claim older than this is treated as abandoned (the invocation died mid-booking)
+    private static final long CLAIM_TIMEOUT_SECONDS = 60;
+
+    private final AmazonDynamoDB dynamoDB;
+    private final String tableName = System.getenv("idempotencyTable");
+
+    public IdempotencyRepository(AmazonDynamoDB dynamoDB) {
+        this.dynamoDB = dynamoDB;
+    }
+
+    /**
+     * Returns true when the key was free (or its previous claim expired or was abandoned) and now
+     * belongs to the caller.
+     */
+    public boolean claim(String key, String requestHash) {
+        long now = System.currentTimeMillis() / 1000;
+
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("idempotency_key", new AttributeValue().withS(key));
+        item.put("status", new AttributeValue().withS(IdempotencyRecord.IN_PROGRESS));
+        item.put("request_hash", new AttributeValue().withS(requestHash));
+        item.put("claimed_at", new AttributeValue().withN(String.valueOf(now)));
+        item.put("expires_at", new AttributeValue().withN(String.valueOf(now + TTL_SECONDS)));
+
+        try {
+            dynamoDB.putItem(new PutItemRequest()
+                    .withTableName(tableName)
+                    .withItem(item)
+                    .withConditionExpression("attribute_not_exists(idempotency_key) OR expires_at < :now OR (#status = :inProgress AND claimed_at < :abandoned)")
+                    .withExpressionAttributeNames(Map.of("#status", "status"))
+                    .withExpressionAttributeValues(Map.of(
+                            ":now", new AttributeValue().withN(String.valueOf(now)),
+                            ":inProgress", new AttributeValue().withS(IdempotencyRecord.IN_PROGRESS),
+                            ":abandoned", new AttributeValue().withN(String.valueOf(now - CLAIM_TIMEOUT_SECONDS))
+                    )));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            logger.debug("Idempotency key {} already claimed", key);
+            return false;
+        }
+    }
+
+    public IdempotencyRecord find(String key) {
+        Map<String, AttributeValue> item = dynamoDB.getItem(new GetItemRequest()
+                .withTableName(tableName)
+                .withKey(Map.of("idempotency_key", new AttributeValue().withS(key)))
+                .withConsistentRead(true)).getItem();
+        if (item == null) {
+            return null;
+        }
+
+        IdempotencyRecord idempotencyRecord = new IdempotencyRecord();
+        idempotencyRecord.setKey(key);
+        idempotencyRecord.setStatus(stringValue(item, "status"));
+        idempotencyRecord.setRequestHash(stringValue(item, "request_hash"));
+        idempotencyRecord.setBody(stringValue(item, "response_body"));
+        if (item.containsKey("status_code")) {
+            idempotencyRecord.setStatusCode(Integer.parseInt(item.get("status_code").getN()));
+        }
+        if (item.containsKey("response_headers")) {
+            idempotencyRecord.setHeaders(item.get("response_headers").getM().entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getS())));
+        }
+        return idempotencyRecord;
+    }
+
+    public void complete(String key, int statusCode, Map<String, String> headers, String body) {
+        Map<String, AttributeValue> responseHeaders = new HashMap<>();
+        if (headers != null) {
+            headers.forEach((name, value) -> responseHeaders.put(name, new AttributeValue().withS(value)));
+        }
+
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":completed", new AttributeValue().withS(IdempotencyRecord.COMPLETED));
+        values.put(":statusCode", new AttributeValue().withN(String.valueOf(statusCode)));
+        values.put(":headers", new AttributeValue().withM(responseHeaders));
+        values.put(":body", new AttributeValue().withS(body == null ? "" : body));
+
+        dynamoDB.updateItem(new UpdateItemRequest()
+                .withTableName(tableName)
+                .withKey(Map.of("idempotency_key", new AttributeValue().withS(key)))
+                .withUpdateExpression("SET #status = :completed, status_code = :statusCode, response_headers = :headers, response_body = :body")
+                .withExpressionAttributeNames(Map.of("#status", "status"))
+                .withExpressionAttributeValues(values));
+    }
+
+    public void release(String key) {
+        dynamoDB.deleteItem(new DeleteItemRequest()
+                .withTableName(tableName)
+                .withKey(Map.of("idempotency_key", new AttributeValue().withS(key))));
+    }
+
+    private static String stringValue(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value == null ? null : value.getS();
+    }
+}
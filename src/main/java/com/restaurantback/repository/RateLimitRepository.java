@@ -0,0 +1,93 @@
+package com.restaurantback.repository;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.*;
+import com.restaurantback.utils.AppLogger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token buckets kept in DynamoDB so a limit holds across Lambda containers. Each bucket is one item
+ * (bucket_key, tokens, updated_at, expires_at) updated with an optimistic check on updated_at; the
+ * expires_at attribute is meant to be the table's TTL so idle buckets clean themselves up.
+ * Disabled unless the rateLimitTable environment variable is set.
+ */
+public class RateLimitRepository {
+    private static final AppLogger logger = AppLogger.getLogger(RateLimitRepository.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final AmazonDynamoDB dynamoDB;
+    private final String tableName = System.getenv("rateLimitTable");
+
+    public RateLimitRepository(AmazonDynamoDB dynamoDB) {
+        this.dynamoDB = dynamoDB;
+    }
+
+    public boolean isEnabled() {
+        return tableName != null && !tableName.isBlank();
+    }
+
+    /**
+     * Takes cost tokens from the shared bucket and returns 0, or returns the wait in milliseconds
+     * when the bucket is short. If DynamoDB cannot be reached the request is admitted, leaving the
+     * per-container buckets as the only limit; if the bucket keeps changing under us it is being
+     * hammered, so the request is denied for the time one cost takes to refill.
+     */
+    public long tryAcquire(String bucketKey, double cost, double capacity, double refillPerSecond) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try {
+                Map<String, AttributeValue> item = dynamoDB.getItem(new GetItemRequest()
+                        .withTableName(tableName)
+                        .withKey(Map.of("bucket_key", new AttributeValue().withS(bucketKey)))
+                        .withConsistentRead(true)).getItem();
+
+                long now = System.currentTimeMillis();
+                double tokens = capacity;
+                String previousUpdate = null;
+                if (item != null && item.containsKey("tokens") && item.containsKey("updated_at")) {
+                    previousUpdate = item.get("updated_at").getN();
+                    long elapsed = Math.max(0, now - Long.parseLong(previousUpdate));
+                    tokens = Math.min(capacity, Double.parseDouble(item.get("tokens").getN()) + elapsed / 1000.0 * refillPerSecond);
+                }
+
+                if (tokens < cost) {
+                    return (long) Math.ceil((cost - tokens) / refillPerSecond * 1000);
+                }
+
+                save(bucketKey, tokens - cost, now, previousUpdate, capacity, refillPerSecond);
+                return 0;
+            } catch (ConditionalCheckFailedException e) {
+                logger.debug("Bucket {} changed concurrently, retrying", bucketKey);
+            } catch (Exception e) {
+                logger.warn("Shared rate limit unavailable for {}: {}", bucketKey, e.getMessage());
+                return 0;
+            }
+        }
+        logger.debug("Bucket {} still contended after {} attempts, denying", bucketKey, MAX_ATTEMPTS);
+        return (long) Math.ceil(cost / refillPerSecond * 1000);
+    }
+
+    private void save(String bucketKey, double tokens, long now, String previousUpdate, double capacity, double refillPerSecond) {
+        long secondsToFull = (long) Math.ceil(capacity / refillPerSecond);
+
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("bucket_key", new AttributeValue().withS(bucketKey));
+        item.put("tokens", new AttributeValue().withN(String.valueOf(tokens)));
+        item.put("updated_at", new AttributeValue().withN(String.valueOf(now)));
+        item.put("expires_at", new AttributeValue().withN(String.valueOf(now / 1000 + secondsToFull + 60)));
+
+        PutItemRequest putRequest = new PutItemRequest()
+                .withTableName(tableName)
+                .withItem(item);
+
+        if (previousUpdate == null) {
+            putRequest.withConditionExpression("attribute_not_exists(bucket_key)");
+        } else {
+            putRequest.withConditionExpression("updated_at = :previous")
+                    .withExpressionAttributeValues(Map.of(":previous", new AttributeValue().withN(previousUpdate)));
+        }
+        dynamoDB.putItem(putRequest);
+    }
+}
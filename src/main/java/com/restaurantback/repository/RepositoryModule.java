@@ -18,6 +18,13 @@ public class RepositoryModule {
         return new BookingRepository(amazonDynamoDB, dynamoDbEnhancedClient);
     }
 
+    @Singleton
+    @Provides
+    @Named("reservationTransactions")
+    ReservationTransactions reservationTransactions(@Named("amazonDynamoDBClient")AmazonDynamoDB amazonDynamoDB, @Named("tableAvailabilityIndex")TableAvailabilityIndex tableAvailabilityIndex){
+        return new ReservationTransactions(amazonDynamoDB, tableAvailabilityIndex);
+    }
+
     @Singleton
     @Provides
     @Named("locationRepository")
@@ -28,8 +35,15 @@ public class RepositoryModule {
     @Singleton
     @Provides
     @Named("tableRepository")
-    TableRepository tableRepository(@Named("amazonDynamoDBClient")AmazonDynamoDB amazonDynamoDB, @Named("dynamoDbEnhancedClient")DynamoDbEnhancedClient dynamoDbEnhancedClient){
-        return new TableRepository(amazonDynamoDB, dynamoDbEnhancedClient);
+    TableRepository tableRepository(@Named("amazonDynamoDBClient")AmazonDynamoDB amazonDynamoDB, @Named("dynamoDbEnhancedClient")DynamoDbEnhancedClient dynamoDbEnhancedClient, @Named("tableAvailabilityIndex")TableAvailabilityIndex tableAvailabilityIndex){
+        return new TableRepository(amazonDynamoDB, dynamoDbEnhancedClient, tableAvailabilityIndex);
+    }
+
+    @Singleton
+    @Provides
+    @Named("tableAvailabilityIndex")
+    TableAvailabilityIndex tableAvailabilityIndex(){
+        return new TableAvailabilityIndex();
     }
 
     @Singleton
@@ -52,4 +66,25 @@ public class RepositoryModule {
     UserRepository userRepository(@Named("dynamoDbEnhancedClient")DynamoDbEnhancedClient dynamoDbEnhancedClient){
         return new UserRepository(dynamoDbEnhancedClient);
     }
-}
\ No newline at end of file
+
+    @Singleton
+    @Provides
+    @Named("rateLimitRepository")
+    RateLimitRepository rateLimitRepository(@Named("amazonDynamoDBClient")AmazonDynamoDB amazonDynamoDB){
+        return new RateLimitRepository(amazonDynamoDB);
+    }
+
+    @Singleton
+    @Provides
+    @Named("holdRepository")
+    HoldRepository holdRepository(@Named("amazonDynamoDBClient")AmazonDynamoDB amazonDynamoDB){
+        return new HoldRepository(amazonDynamoDB);
+    }
+
+    @Singleton
+    @Provides
+    @Named("idempotencyRepository")
+    IdempotencyRepository idempotencyRepository(@Named("amazonDynamoDBClient")AmazonDynamoDB amazonDynamoDB){
+        return new IdempotencyRepository(amazonDynamoDB);
+    }
+}
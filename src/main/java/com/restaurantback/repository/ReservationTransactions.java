@@ -0,0 +1,317 @@
+package com.restaurantback.repository;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.*;
+import com.restaurantback.exceptions.reservationException.ConflictException;
+import com.restaurantback.exceptions.reservationException.NotFoundException;
+import com.restaurantback.exceptions.reservationException.SlotTakenException;
+import com.restaurantback.utils.AppLogger;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes a booking together with the table and waiter slots it holds in one TransactWriteItems call,
+ * so a reservation either exists with both slots claimed or not at all. Slot conditions are the same
+ * as the single-item claims in SlotClaims; transaction conflicts are retried with jittered backoff.
+ */
+public class ReservationTransactions {
+    private static final AppLogger logger = AppLogger.getLogger(ReservationTransactions.class);
+
+    private static final int MAX_ATTEMPTS = 4;
+
+    private static final long BASE_BACKOFF_MILLIS = 20;
+
+    private final AmazonDynamoDB dynamoDB;
+    private final String bookingTable = System.getenv("bookingTable");
+    private final SlotClaims tableSlots;
+    private final SlotClaims waiterSlots;
+
+    @Inject
+    public ReservationTransactions(AmazonDynamoDB dynamoDB, TableAvailabilityIndex availabilityIndex) {
+        this.dynamoDB = dynamoDB;
+        this.tableSlots = new SlotClaims(dynamoDB, System.getenv("tablesTable"), "Table", availabilityIndex);
+        this.waiterSlots = new SlotClaims(dynamoDB, System.getenv("waiterTable"), "Waiter");
+    }
+
+    /**
+     * Puts a new booking and claims its table and waiter slots. ConflictException if either slot is
+     * taken or the booking id is already in use, NotFoundException if the table or waiter is gone.
+     */
+    public Map<String, AttributeValue> createBooking(Map<String, AttributeValue> booking) {
+        return createBooking(booking, null);
+    }
+
+    /**
+     * As {@link #createBooking(Map)}, converting the caller's hold (see TableRepository#holdSlot) on
+     * the table slot into the booking; holdId may be null. The hold only counts when it was placed by
+     * the booking's user_email.
+     */
+    public Map<String, AttributeValue> createBooking(Map<String, AttributeValue> booking, String holdId) {
+        String date = booking.get("date").getS();
+        String slot = slotOf(booking);
+
+        List<Step> steps = new ArrayList<>();
+        steps.add(Step.booking(new TransactWriteItem().withPut(new Put()
+                .withTableName(bookingTable)
+                .withItem(BookingRepository.withIndexKeys(booking))
+                .withConditionExpression("attribute_not_exists(booking_id)")), "Reservation already exists"));
+        steps.add(Step.claim(tableSlots, tableKey(booking), date, slot, holdId, booking.get("user_email").getS()));
+        steps.add(Step.claim(waiterSlots, waiterKey(booking), date, slot, null, null));
+
+        execute(steps);
+        logger.info("Booked {} with table {} and waiter {} on {} at {}", booking.get("booking_id").getS(),
+                booking.get("table_id").getS(), booking.get("waiter_id").getS(), date, slot);
+        return booking;
+    }
+
+    /**
+     * Replaces a booking with an updated copy (new date, time, table or waiter), moving the slots in
+     * the same transaction. The put is conditional on the booking still matching what was read, so
+     * two concurrent edits of one reservation cannot both move its slots.
+     */
+    public Map<String, AttributeValue> moveBooking(Map<String, AttributeValue> existing, Map<String, AttributeValue> updated) {
+        List<Step> steps = new ArrayList<>();
+        steps.add(Step.booking(new TransactWriteItem().withPut(new Put()
+                .withTableName(bookingTable)
+                .withItem(BookingRepository.withIndexKeys(updated))
+                .withConditionExpression("#date = :date AND #from = :from AND #to = :to AND table_id = :table AND waiter_id = :waiter AND #status <> :cancelled")
+                .withExpressionAttributeNames(Map.of("#date", "date", "#from", "from", "#to", "to", "#status", "status"))
+                .withExpressionAttributeValues(Map.of(
+                        ":date", existing.get("date"),
+                        ":from", existing.get("from"),
+                        ":to", existing.get("to"),
+                        ":table", existing.get("table_id"),
+                        ":waiter", existing.get("waiter_id"),
+                        ":cancelled", new AttributeValue().withS("CANCELLED")
+                ))), "Reservation was changed by another request, please reload it"));
+        addMoveSteps(steps, tableSlots, tableKey(existing), tableKey(updated), existing, updated);
+        addMoveSteps(steps, waiterSlots, waiterKey(existing), waiterKey(updated), existing, updated);
+
+        execute(steps);
+        logger.info("Moved booking {} to table {} and waiter {} on {} at {}", updated.get("booking_id").getS(),
+                updated.get("table_id").getS(), updated.get("waiter_id").getS(), updated.get("date").getS(), slotOf(updated));
+        return updated;
+    }
+
+    /**
+     * Marks the booking CANCELLED and releases its table and waiter slots in one transaction. The
+     * update is conditional on the booking still being where it was read, as in moveBooking, so a
+     * concurrent move cannot leave its new slots claimed by a cancelled booking.
+     */
+    public void cancelBooking(Map<String, AttributeValue> existing) {
+        String date = existing.get("date").getS();
+        String slot = slotOf(existing);
+
+        List<Step> steps = new ArrayList<>();
+        steps.add(Step.booking(new TransactWriteItem().withUpdate(new Update()
+                .withTableName(bookingTable)
+                .withKey(Map.of("booking_id", existing.get("booking_id"), "user_email", existing.get("user_email")))
+                .withUpdateExpression("SET #status = :cancelled")
+                .withConditionExpression("#date = :date AND #from = :from AND #to = :to AND table_id = :table AND waiter_id = :waiter AND #status <> :cancelled")
+                .withExpressionAttributeNames(Map.of("#date", "date", "#from", "from", "#to", "to", "#status", "status"))
+                .withExpressionAttributeValues(Map.of(
+                        ":date", existing.get("date"),
+                        ":from", existing.get("from"),
+                        ":to", existing.get("to"),
+                        ":table", existing.get("table_id"),
+                        ":waiter", existing.get("waiter_id"),
+                        ":cancelled", new AttributeValue().withS("CANCELLED")
+                ))), "Reservation was changed by another request, please reload it"));
+        steps.add(Step.release(tableSlots, tableKey(existing), date, slot));
+        steps.add(Step.release(waiterSlots, waiterKey(existing), date, slot));
+
+        execute(steps);
+        logger.info("Cancelled booking {} and freed table {} and waiter {} on {} at {}", existing.get("booking_id").getS(),
+                existing.get("table_id").getS(), existing.get("waiter_id").getS(), date, slot);
+    }
+
+    private void addMoveSteps(List<Step> steps, SlotClaims slots, Map<String, AttributeValue> oldKey, Map<String, AttributeValue> newKey,
+                              Map<String, AttributeValue> existing, Map<String, AttributeValue> updated) {
+        String oldDate = existing.get("date").getS();
+        String oldSlot = slotOf(existing);
+        String date = updated.get("date").getS();
+        String slot = slotOf(updated);
+
+        if (oldKey.equals(newKey)) {
+            if (!(oldDate.equals(date) && oldSlot.equals(slot))) {
+                steps.add(Step.move(slots, newKey, oldDate, oldSlot, date, slot));
+            }
+            return;
+        }
+        steps.add(Step.release(slots, oldKey, oldDate, oldSlot));
+        steps.add(Step.claim(slots, newKey, date, slot, null, null));
+    }
+
+    private void execute(List<Step> steps) {
+        List<TransactWriteItem> items = new ArrayList<>();
+        steps.forEach(step -> items.add(step.item));
+
+        boolean prepared = false;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                dynamoDB.transactWriteItems(new TransactWriteItemsRequest().withTransactItems(items));
+                steps.forEach(Step::committed);
+                return;
+            } catch (TransactionCanceledException e) {
+                boolean missingPath = false;
+                boolean retryable = false;
+                List<CancellationReason> reasons = e.getCancellationReasons();
+                for (int i = 0; reasons != null && i < reasons.size(); i++) {
+                    String code = reasons.get(i).getCode();
+                    if ("ConditionalCheckFailed".equals(code)) {
+                        throw steps.get(i).conditionFailure(reasons.get(i).getItem());
+                    }
+                    if ("ValidationError".equals(code)) {
+                        if (prepared || !SlotClaims.isMissingPathMessage(reasons.get(i).getMessage())) {
+                            throw e;
+                        }
+                        missingPath = true;
+                    } else if ("TransactionConflict".equals(code) || "ThrottlingError".equals(code)
+                            || "ProvisionedThroughputExceeded".equals(code)) {
+                        retryable = true;
+                    }
+                }
+                if (!(missingPath || retryable) || attempt == MAX_ATTEMPTS) {
+                    throw conflict(e);
+                }
+                if (missingPath) {
+                    prepareDates(steps);
+                    prepared = true;
+                } else {
+                    backoff(attempt);
+                }
+            } catch (TransactionInProgressException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw conflict(e);
+                }
+                backoff(attempt);
+            } catch (AmazonDynamoDBException e) {
+                // an invalid slot path can also be reported for the request as a whole; once the
+                // dates are prepared it cannot be, so anything else is a real error
+                if (prepared || !SlotClaims.isMissingPath(e) || attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                prepareDates(steps);
+                prepared = true;
+            }
+        }
+    }
+
+    // booked[date] must be a slot map for the slot paths to be valid; see SlotClaims#ensureDate
+    private void prepareDates(List<Step> steps) {
+        for (Step step : steps) {
+            if (step.slots == null) {
+                continue;
+            }
+            step.slots.ensureDate(step.key, step.date);
+            if (step.oldDate != null && !step.oldDate.equals(step.date)) {
+                step.slots.ensureDate(step.key, step.oldDate);
+            }
+        }
+    }
+
+    private static void backoff(int attempt) {
+        long cap = BASE_BACKOFF_MILLIS << attempt;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap / 2, cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Reservation could not be saved, please retry");
+        }
+    }
+
+    private static ConflictException conflict(AmazonDynamoDBException e) {
+        logger.warn("Reservation transaction failed: {}", e.getMessage());
+        return new ConflictException("Reservation is being updated concurrently, please retry");
+    }
+
+    private static String slotOf(Map<String, AttributeValue> booking) {
+        return booking.get("from").getS() + "-" + booking.get("to").getS();
+    }
+
+    private static Map<String, AttributeValue> tableKey(Map<String, AttributeValue> booking) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("table_id", booking.get("table_id"));
+        key.put("location_id", booking.get("locationId"));
+        return key;
+    }
+
+    private static Map<String, AttributeValue> waiterKey(Map<String, AttributeValue> booking) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("waiter_id", booking.get("waiter_id"));
+        key.put("location_id", booking.get("locationId"));
+        return key;
+    }
+
+    /**
+     * One item of the transaction, with what is needed to explain its failure.
+     */
+    private static class Step {
+        private final TransactWriteItem item;
+        private final SlotClaims slots;
+        private final Map<String, AttributeValue> key;
+        private final String date;
+        private final String slot;
+        private final String oldDate;
+        private final String oldSlot;
+        private final String conflictMessage;
+
+        private Step(TransactWriteItem item, SlotClaims slots, Map<String, AttributeValue> key, String date, String slot,
+                     String oldDate, String oldSlot, String conflictMessage) {
+            this.item = item;
+            this.slots = slots;
+            this.key = key;
+            this.date = date;
+            this.slot = slot;
+            this.oldDate = oldDate;
+            this.oldSlot = oldSlot;
+            this.conflictMessage = conflictMessage;
+        }
+
+        static Step booking(TransactWriteItem item, String conflictMessage) {
+            return new Step(item, null, null, null, null, null, null, conflictMessage);
+        }
+
+        static Step claim(SlotClaims slots, Map<String, AttributeValue> key, String date, String slot, String holdId, String owner) {
+            return new Step(new TransactWriteItem().withUpdate(slots.claimUpdate(key, date, slot, holdId, owner)),
+                    slots, key, date, slot, null, null, null);
+        }
+
+        static Step move(SlotClaims slots, Map<String, AttributeValue> key, String oldDate, String oldSlot, String date, String slot) {
+            return new Step(new TransactWriteItem().withUpdate(slots.moveUpdate(key, oldDate, oldSlot, date, slot)),
+                    slots, key, date, slot, oldDate, oldSlot, null);
+        }
+
+        static Step release(SlotClaims slots, Map<String, AttributeValue> key, String date, String slot) {
+            return new Step(new TransactWriteItem().withUpdate(slots.releaseUpdate(key, date, slot)),
+                    slots, key, date, null, date, slot, null);
+        }
+
+        void committed() {
+            if (slots == null) {
+                return;
+            }
+            if (oldSlot != null) {
+                slots.released(key, oldDate, oldSlot);
+            }
+            if (slot != null) {
+                slots.claimed(key, date, slot);
+            }
+        }
+
+        RuntimeException conditionFailure(Map<String, AttributeValue> oldItem) {
+            if (slots == null) {
+                return new ConflictException(conflictMessage);
+            }
+            if (oldItem == null || !oldItem.containsKey("location_id")) {
+                return new NotFoundException(slots.entityName() + " not found");
+            }
+            return new SlotTakenException(slots.entityName(), slots.entityName() + " is already booked on " + date + " at " + slot);
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.restaurantback.repository;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.*;
+import com.restaurantback.exceptions.reservationException.ConflictException;
+import com.restaurantback.exceptions.reservationException.NotFoundException;
+import com.restaurantback.exceptions.reservationException.SlotTakenException;
+import com.restaurantback.utils.AppLogger;
+import com.restaurantback.utils.BookedSlots;
+import com.restaurantback.utils.IntervalSchedule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Claims and releases time slots in the booked map (date -> {slot: true}) shared by the tables and
+ * waiters tables. Every slot is its own document path, so a claim is one conditional SET that fails
+ * when the slot already exists and a release is one REMOVE; both are idempotent and neither needs
+ * the current contents of the day. Dates still stored as lists are converted the first time they
+ * are written.
+ *
+ * Slots can have any start and length, so besides its own key a slot holds every granule it covers
+ * in busy (date -> {"HH:mm": slot}); a claim that needs a granule someone else holds fails its
+ * condition, which is what keeps overlapping bookings out.
+ *
+ * A hold writes {hold: id, owner: email, expires: epochSeconds} at the same paths instead. Other
+ * claims treat it as taken until it expires, and a claim made by the owner with the hold's id takes
+ * it over.
+ */
+class SlotClaims {
+    private static final AppLogger logger = AppLogger.getLogger(SlotClaims.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String INVALID_PATH_MESSAGE = "document path provided in the update expression is invalid";
+
+    private final AmazonDynamoDB dynamoDB;
+    private final String tableName;
+    private final String entityName;
+    private final SlotListener listener;
+
+    SlotClaims(AmazonDynamoDB dynamoDB, String tableName, String entityName) {
+        this(dynamoDB, tableName, entityName, null);
+    }
+
+    SlotClaims(AmazonDynamoDB dynamoDB, String tableName, String entityName, SlotListener listener) {
+        this.dynamoDB = dynamoDB;
+        this.tableName = tableName;
+        this.entityName = entityName;
+        this.listener = listener;
+    }
+
+    /**
+     * Sets booked[date][slot] and its busy granules, throwing ConflictException when the slot or any
+     * part of it is taken and NotFoundException when the item does not exist. A missing booked/busy
+     * map or date, or a date still in the list form, costs one extra read and write before the
+     * claim is retried.
+     */
+    void claim(Map<String, AttributeValue> key, String date, String slot) {
+        write(key, date, slot, new SlotUpdate().claim(date, slot, null, null));
+    }
+
+    /**
+     * Holds the slot for holdId and owner until expiresAt (epoch seconds), with the same conditions
+     * as a claim; the owner may renew its own hold.
+     */
+    void hold(Map<String, AttributeValue> key, String date, String slot, String holdId, String owner, long expiresAt) {
+        write(key, date, slot, new SlotUpdate().hold(date, slot, holdId, owner, expiresAt));
+    }
+
+    private void write(Map<String, AttributeValue> key, String date, String slot, SlotUpdate update) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try {
+                dynamoDB.updateItem(update.toRequest(tableName, key));
+                logger.debug("Claimed {} {} {} on {}", entityName, key, slot, date);
+                claimed(key, date, slot);
+                return;
+            } catch (ConditionalCheckFailedException e) {
+                throw conditionFailure(key, date, slot);
+            } catch (AmazonDynamoDBException e) {
+                if (!isMissingPath(e)) {
+                    throw e;
+                }
+                // booked/busy or their entry for the date is missing, or the date is still a list
+                ensureDate(key, date);
+            }
+        }
+        throw new ConflictException(entityName + " schedule is being updated concurrently, please retry");
+    }
+
+    /**
+     * Removes booked[date][slot] and the granules it holds. Returns whether the slot was booked, so
+     * callers that need to know can skip a read beforehand.
+     */
+    boolean release(Map<String, AttributeValue> key, String date, String slot) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try {
+                dynamoDB.updateItem(new SlotUpdate().release(date, slot).requireBooked(date, slot).toRequest(tableName, key));
+                released(key, date, slot);
+                return true;
+            } catch (ConditionalCheckFailedException e) {
+                // not booked, or no such item; the granules belong to someone else either way
+                logger.debug("Slot {} not found on {} for {} {}", slot, date, entityName, key);
+                return false;
+            } catch (AmazonDynamoDBException e) {
+                if (!isMissingPath(e)) {
+                    throw e;
+                }
+                try {
+                    ensureDate(key, date);
+                } catch (NotFoundException notFound) {
+                    return false;
+                }
+            }
+        }
+        throw new ConflictException(entityName + " schedule is being updated concurrently, please retry");
+    }
+
+    /**
+     * Rewrites every date of the item that is still stored as a list and fills in busy from the
+     * booked slots when the item has none yet. Returns false when there was nothing to do or
+     * another writer got there first; either way the item is left consistent.
+     */
+    boolean migrate(Map<String, AttributeValue> key, AttributeValue booked, AttributeValue busy) {
+        if (booked == null || booked.getM() == null) {
+            return false;
+        }
+        AttributeValue migrated = BookedSlots.migrated(booked);
+        if (migrated == null && busy != null) {
+            return false;
+        }
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":booked", booked);
+        values.put(":migrated", migrated == null ? booked : migrated);
+        values.put(":busy", BookedSlots.busyOf(booked));
+        try {
+            dynamoDB.updateItem(new UpdateItemRequest()
+                    .withTableName(tableName)
+                    .withKey(key)
+                    .withUpdateExpression("SET booked = :migrated, busy = :busy")
+                    .withConditionExpression("booked = :booked AND attribute_not_exists(busy)")
+                    .withExpressionAttributeValues(values));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            logger.debug("{} {} changed during migration, leaving it to the next write", entityName, key);
+            return false;
+        }
+    }
+
+    /**
+     * Whether DynamoDB rejected the update because a slot path does not exist yet, the one
+     * validation error ensureDate can fix; every other one is a real error.
+     */
+    static boolean isMissingPath(AmazonDynamoDBException e) {
+        return "ValidationException".equals(e.getErrorCode()) && isMissingPathMessage(e.getErrorMessage());
+    }
+
+    static boolean isMissingPathMessage(String message) {
+        return message != null && message.contains(INVALID_PATH_MESSAGE);
+    }
+
+    /**
+     * Makes booked[date] a (possibly empty) slot map and busy[date] the granule map of its slots, so
+     * paths under both can be written; a list-form date is converted in place. Losing a race to
+     * another writer is fine, the caller retries its write.
+     */
+    void ensureDate(Map<String, AttributeValue> key, String date) {
+        Map<String, AttributeValue> item = dynamoDB.getItem(new GetItemRequest()
+                .withTableName(tableName)
+                .withKey(key)
+                .withProjectionExpression("location_id, booked.#date, busy.#date")
+                .withExpressionAttributeNames(Map.of("#date", date))
+                .withConsistentRead(true)).getItem();
+        if (item == null) {
+            throw new NotFoundException(entityName + " not found");
+        }
+
+        AttributeValue booked = item.get("booked");
+        AttributeValue current = booked == null || booked.getM() == null ? null : booked.getM().get(date);
+        AttributeValue busy = item.get("busy");
+        boolean hasBusyDate = busy != null && busy.getM() != null && busy.getM().containsKey(date);
+        List<String> slots = BookedSlots.slotsOf(current);
+
+        List<String> sets = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        conditions.add("attribute_exists(location_id)");
+        Map<String, AttributeValue> values = new HashMap<>();
+        if (booked == null) {
+            sets.add("booked = if_not_exists(booked, :bookedMap)");
+            values.put(":bookedMap", new AttributeValue().withM(Map.of(date, BookedSlots.toSlotMap(List.of()))));
+        } else if (current == null) {
+            sets.add("booked.#date = if_not_exists(booked.#date, :slots)");
+            values.put(":slots", BookedSlots.toSlotMap(List.of()));
+        } else if (BookedSlots.isLegacy(current)) {
+            sets.add("booked.#date = :slots");
+            conditions.add("booked.#date = :expected");
+            values.put(":slots", BookedSlots.toSlotMap(slots));
+            values.put(":expected", current);
+        }
+        if (busy == null) {
+            sets.add("busy = if_not_exists(busy, :busyMap)");
+            values.put(":busyMap", new AttributeValue().withM(Map.of(date, BookedSlots.granulesOf(slots))));
+        } else if (!hasBusyDate) {
+            sets.add("busy.#date = if_not_exists(busy.#date, :granules)");
+            values.put(":granules", BookedSlots.granulesOf(slots));
+        }
+        if (sets.isEmpty()) {
+            return;
+        }
+
+        String update = "SET " + String.join(", ", sets);
+        String condition = String.join(" AND ", conditions);
+        UpdateItemRequest request = new UpdateItemRequest()
+                .withTableName(tableName)
+                .withKey(key)
+                .withUpdateExpression(update)
+                .withConditionExpression(condition)
+                .withExpressionAttributeValues(values);
+        if (update.contains("#date") || condition.contains("#date")) {
+            request.withExpressionAttributeNames(Map.of("#date", date));
+        }
+        try {
+            dynamoDB.updateItem(request);
+        } catch (ConditionalCheckFailedException e) {
+            logger.debug("{} {} changed while preparing {}", entityName, key, date);
+        }
+    }
+
+    /**
+     * The claim of {@link #claim} as a transaction item. On a failed condition the old item comes back
+     * with the cancellation reason, so a missing item can be told apart from a taken slot.
+     */
+    Update claimUpdate(Map<String, AttributeValue> key, String date, String slot, String holdId, String owner) {
+        return new SlotUpdate().claim(date, slot, holdId, owner).toUpdate(tableName, key);
+    }
+
+    /**
+     * Frees one slot and claims another on the same item, as a single transaction item (a transaction
+     * may touch each item only once). Granules the two slots share simply change owner.
+     */
+    Update moveUpdate(Map<String, AttributeValue> key, String oldDate, String oldSlot, String date, String slot) {
+        return new SlotUpdate().move(oldDate, oldSlot, date, slot).toUpdate(tableName, key);
+    }
+
+    Update releaseUpdate(Map<String, AttributeValue> key, String date, String slot) {
+        return new SlotUpdate().release(date, slot).toUpdate(tableName, key);
+    }
+
+    String entityName() {
+        return entityName;
+    }
+
+    void claimed(Map<String, AttributeValue> key, String date, String slot) {
+        if (listener != null) {
+            listener.claimed(key, date, slot);
+        }
+    }
+
+    void released(Map<String, AttributeValue> key, String date, String slot) {
+        if (listener != null) {
+            listener.released(key, date, slot);
+        }
+    }
+
+    private RuntimeException conditionFailure(Map<String, AttributeValue> key, String date, String slot) {
+        Map<String, AttributeValue> item = dynamoDB.getItem(new GetItemRequest()
+                .withTableName(tableName)
+                .withKey(key)
+                .withProjectionExpression("location_id")).getItem();
+        if (item == null) {
+            return new NotFoundException(entityName + " not found");
+        }
+        return new SlotTakenException(entityName, entityName + " is already booked on " + date + " at " + slot);
+    }
+
+    /**
+     * Collects the SET/REMOVE clauses and conditions of one slot update. Dates, slots and granules
+     * get placeholder names in the order they are first used (#d0, #s0, #g0 ...).
+     */
+    private static class SlotUpdate {
+        private final List<String> sets = new ArrayList<>();
+        private final List<String> removes = new ArrayList<>();
+        private final List<String> conditions = new ArrayList<>();
+        private final Map<String, String> aliases = new HashMap<>();
+        private final Map<String, String> names = new HashMap<>();
+        private final Map<String, AttributeValue> values = new HashMap<>();
+        private final long now = System.currentTimeMillis() / 1000;
+
+        SlotUpdate() {
+            conditions.add("attribute_exists(location_id)");
+        }
+
+        // holdId, when given with its owner, is a hold on these paths that the claim may take over
+        SlotUpdate claim(String date, String slot, String holdId, String owner) {
+            values.put(":true", new AttributeValue().withBOOL(true));
+            return take(date, slot, ":true", value(slot), holdId, owner);
+        }
+
+        SlotUpdate hold(String date, String slot, String holdId, String owner, long expiresAt) {
+            values.put(":held", new AttributeValue().withM(Map.of(
+                    "hold", new AttributeValue().withS(holdId),
+                    "owner", new AttributeValue().withS(owner),
+                    "expires", new AttributeValue().withN(String.valueOf(expiresAt)))));
+            return take(date, slot, ":held", ":held", holdId, owner);
+        }
+
+        private SlotUpdate take(String date, String slot, String slotValue, String granuleValue, String holdId, String owner) {
+            String d = name("d", date);
+            String s = name("s", slot);
+            sets.add("booked." + d + "." + s + " = " + slotValue);
+            conditions.add(free("booked." + d + "." + s, holdId, owner));
+            for (String granule : IntervalSchedule.granules(slot)) {
+                String g = name("g", granule);
+                sets.add("busy." + d + "." + g + " = " + granuleValue);
+                conditions.add(free("busy." + d + "." + g, holdId, owner));
+            }
+            return this;
+        }
+
+        // a path is free when it is missing or holds a hold that has expired or is owner's holdId
+        private String free(String path, String holdId, String owner) {
+            values.put(":now", new AttributeValue().withN(String.valueOf(now)));
+            String condition = "attribute_not_exists(" + path + ") OR " + path + ".expires < :now";
+            if (holdId != null && owner != null) {
+                values.put(":hold", new AttributeValue().withS(holdId));
+                values.put(":owner", new AttributeValue().withS(owner));
+                condition += " OR (" + path + ".hold = :hold AND " + path + ".owner = :owner)";
+            }
+            return "(" + condition + ")";
+        }
+
+        SlotUpdate release(String date, String slot) {
+            String d = name("d", date);
+            removes.add("booked." + d + "." + name("s", slot));
+            for (String granule : IntervalSchedule.granules(slot)) {
+                removes.add("busy." + d + "." + name("g", granule));
+            }
+            return this;
+        }
+
+        SlotUpdate requireBooked(String date, String slot) {
+            conditions.add("attribute_exists(booked." + name("d", date) + "." + name("s", slot) + ")");
+            return this;
+        }
+
+        SlotUpdate move(String oldDate, String oldSlot, String date, String slot) {
+            if (!oldDate.equals(date)) {
+                return claim(date, slot, null, null).release(oldDate, oldSlot);
+            }
+            String d = name("d", date);
+            String s = name("s", slot);
+            String owner = value(slot);
+            sets.add("booked." + d + "." + s + " = :true");
+            values.put(":true", new AttributeValue().withBOOL(true));
+            conditions.add(free("booked." + d + "." + s, null, null));
+            removes.add("booked." + d + "." + name("s", oldSlot));
+
+            List<String> oldGranules = IntervalSchedule.granules(oldSlot);
+            List<String> newGranules = IntervalSchedule.granules(slot);
+            for (String granule : newGranules) {
+                String g = name("g", granule);
+                sets.add("busy." + d + "." + g + " = " + owner);
+                if (!oldGranules.contains(granule)) {
+                    conditions.add(free("busy." + d + "." + g, null, null));
+                }
+            }
+            for (String granule : oldGranules) {
+                if (!newGranules.contains(granule)) {
+                    removes.add("busy." + d + "." + name("g", granule));
+                }
+            }
+            return this;
+        }
+
+        UpdateItemRequest toRequest(String tableName, Map<String, AttributeValue> key) {
+            UpdateItemRequest request = new UpdateItemRequest()
+                    .withTableName(tableName)
+                    .withKey(key)
+                    .withUpdateExpression(expression())
+                    .withConditionExpression(String.join(" AND ", conditions))
+                    .withExpressionAttributeNames(names);
+            return values.isEmpty() ? request : request.withExpressionAttributeValues(values);
+        }
+
+        Update toUpdate(String tableName, Map<String, AttributeValue> key) {
+            Update update = new Update()
+                    .withTableName(tableName)
+                    .withKey(key)
+                    .withUpdateExpression(expression())
+                    .withConditionExpression(String.join(" AND ", conditions))
+                    .withExpressionAttributeNames(names)
+                    .withReturnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD);
+            return values.isEmpty() ? update : update.withExpressionAttributeValues(values);
+        }
+
+        private String expression() {
+            StringBuilder expression = new StringBuilder();
+            if (!sets.isEmpty()) {
+                expression.append("SET ").append(String.join(", ", sets));
+            }
+            if (!removes.isEmpty()) {
+                expression.append(expression.length() == 0 ? "" : " ").append("REMOVE ").append(String.join(", ", removes));
+            }
+            return expression.toString();
+        }
+
+        private String name(String prefix, String value) {
+            return aliases.computeIfAbsent(prefix + ":" + value, k -> {
+                String alias = "#" + prefix + names.size();
+                names.put(alias, value);
+                return alias;
+            });
+        }
+
+        private String value(String slot) {
+            String alias = ":slot" + values.size();
+            values.put(alias, new AttributeValue().withS(slot));
+            return alias;
+        }
+    }
+}
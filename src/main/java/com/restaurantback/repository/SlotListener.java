@@ -0,0 +1,15 @@
+package com.restaurantback.repository;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.Map;
+
+/**
+ * Told about every slot this container claims or releases, after the write has succeeded.
+ */
+interface SlotListener {
+
+    void claimed(Map<String, AttributeValue> key, String date, String slot);
+
+    void released(Map<String, AttributeValue> key, String date, String slot);
+}
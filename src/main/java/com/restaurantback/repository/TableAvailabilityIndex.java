@@ -0,0 +1,213 @@
+package com.restaurantback.repository;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.restaurantback.models.Table;
+import com.restaurantback.utils.AppLogger;
+import com.restaurantback.utils.SlotCatalog;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Per-location view of which catalog slots each table has free. A location is loaded from one table
+ * scan into primitive arrays (capacity per table, one int bitmask of booked slots per table and
+ * date) and then kept current by the claims and releases made in this container. Writes made by
+ * other containers show up when the location is reloaded after AVAILABILITY_INDEX_TTL_SECONDS
+ * (default 30). The index only drives listings and the order in which tables are tried when one is
+ * assigned automatically; the conditional claim still decides every booking.
+ */
+public class TableAvailabilityIndex implements SlotListener {
+    private static final AppLogger logger = AppLogger.getLogger(TableAvailabilityIndex.class);
+
+    private static final long TTL_MILLIS = ttlMillis();
+
+    private final Map<String, LocationSlots> locations = new ConcurrentHashMap<>();
+
+    /**
+     * Free slots of every table at the location on the date, loading the location with the given
+     * scan when it is missing or expired.
+     */
+    public Availability availability(String locationId, String date, Supplier<List<Table>> loader) {
+        return load(locationId, loader).availability(date, SlotCatalog.bookable(date));
+    }
+
+    /**
+     * Ids of the tables at the location that seat at least guests and look free for the slot,
+     * smallest capacity first. The index is coarse for slots off the catalog, so there tables whose
+     * overlapping catalog slots are taken follow as a second tier rather than being left out.
+     */
+    public List<String> candidates(String locationId, String date, String slot, int guests, Supplier<List<Table>> loader) {
+        return load(locationId, loader).candidates(date, SlotCatalog.overlapping(slot), SlotCatalog.indexOf(slot) >= 0, guests);
+    }
+
+    private LocationSlots load(String locationId, Supplier<List<Table>> loader) {
+        LocationSlots slots = locations.get(locationId);
+        if (slots == null || slots.isExpired()) {
+            slots = new LocationSlots(loader.get());
+            locations.put(locationId, slots);
+            logger.debug("Loaded availability of {} tables at {}", slots.tableIds.length, locationId);
+        }
+        return slots;
+    }
+
+    @Override
+    public void claimed(Map<String, AttributeValue> key, String date, String slot) {
+        LocationSlots slots = locationOf(key);
+        if (slots != null) {
+            slots.update(key.get("table_id").getS(), date, SlotCatalog.overlapping(slot), true);
+        }
+    }
+
+    @Override
+    public void released(Map<String, AttributeValue> key, String date, String slot) {
+        LocationSlots slots = locationOf(key);
+        if (slots == null) {
+            return;
+        }
+        if (SlotCatalog.indexOf(slot) < 0) {
+            // an off-catalog slot may share bits with other bookings, so clearing them could free too much
+            slots.expired = true;
+            return;
+        }
+        slots.update(key.get("table_id").getS(), date, SlotCatalog.overlapping(slot), false);
+    }
+
+    private LocationSlots locationOf(Map<String, AttributeValue> key) {
+        AttributeValue locationId = key.get("location_id");
+        return locationId == null ? null : locations.get(locationId.getS());
+    }
+
+    private static long ttlMillis() {
+        String value = System.getenv("AVAILABILITY_INDEX_TTL_SECONDS");
+        try {
+            return (value == null ? 30 : Math.max(0, Long.parseLong(value.trim()))) * 1000;
+        } catch (NumberFormatException e) {
+            return 30_000;
+        }
+    }
+
+    /**
+     * Snapshot of one date: parallel arrays indexed by table position.
+     */
+    public static class Availability {
+        private final String[] tableIds;
+        private final int[] capacities;
+        private final int[] free;
+
+        private Availability(String[] tableIds, int[] capacities, int[] free) {
+            this.tableIds = tableIds;
+            this.capacities = capacities;
+            this.free = free;
+        }
+
+        public int size() {
+            return tableIds.length;
+        }
+
+        public String tableId(int i) {
+            return tableIds[i];
+        }
+
+        public int capacity(int i) {
+            return capacities[i];
+        }
+
+        /**
+         * Bitmask of the free catalog slots of table i; see SlotCatalog.
+         */
+        public int free(int i) {
+            return free[i];
+        }
+    }
+
+    private static class LocationSlots {
+        private final String[] tableIds;
+        private final int[] capacities;
+        // table positions by ascending capacity, ties by table id
+        private final int[] bySize;
+        private final Map<String, Integer> positions = new HashMap<>();
+        private final Map<String, int[]> bookedByDate = new HashMap<>();
+        private final long loadedAt = System.currentTimeMillis();
+        private volatile boolean expired;
+
+        private LocationSlots(List<Table> tables) {
+            tableIds = new String[tables.size()];
+            capacities = new int[tables.size()];
+            for (int i = 0; i < tables.size(); i++) {
+                Table table = tables.get(i);
+                tableIds[i] = table.getId();
+                capacities[i] = parseCapacity(table.getCapacity());
+                positions.put(table.getId(), i);
+                if (table.getBooked() == null) {
+                    continue;
+                }
+                for (Map.Entry<String, List<String>> entry : table.getBooked().entrySet()) {
+                    int[] booked = bookedByDate.computeIfAbsent(entry.getKey(), date -> new int[tableIds.length]);
+                    for (String slot : entry.getValue()) {
+                        booked[i] |= SlotCatalog.overlapping(slot);
+                    }
+                }
+            }
+            bySize = IntStream.range(0, tableIds.length).boxed()
+                    .sorted(Comparator.<Integer>comparingInt(i -> capacities[i]).thenComparing(i -> tableIds[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        private boolean isExpired() {
+            return expired || System.currentTimeMillis() - loadedAt >= TTL_MILLIS;
+        }
+
+        private synchronized Availability availability(String date, int bookable) {
+            int[] booked = bookedByDate.get(date);
+            int[] free = new int[tableIds.length];
+            for (int i = 0; i < free.length; i++) {
+                free[i] = booked == null ? bookable : bookable & ~booked[i];
+            }
+            return new Availability(tableIds, capacities, free);
+        }
+
+        private synchronized List<String> candidates(String date, int mask, boolean exact, int guests) {
+            int[] booked = bookedByDate.get(date);
+            List<String> free = new ArrayList<>();
+            List<String> maybeFree = new ArrayList<>();
+            for (int position : bySize) {
+                if (capacities[position] < guests) {
+                    continue;
+                }
+                if (booked == null || (booked[position] & mask) == 0) {
+                    free.add(tableIds[position]);
+                } else if (!exact) {
+                    maybeFree.add(tableIds[position]);
+                }
+            }
+            free.addAll(maybeFree);
+            return free;
+        }
+
+        private synchronized void update(String tableId, String date, int mask, boolean set) {
+            Integer position = positions.get(tableId);
+            if (position == null) {
+                // a table added since the scan; reload rather than guess its capacity
+                expired = true;
+                return;
+            }
+            int[] booked = bookedByDate.computeIfAbsent(date, key -> new int[tableIds.length]);
+            booked[position] = set ? booked[position] | mask : booked[position] & ~mask;
+        }
+
+        private static int parseCapacity(String capacity) {
+            try {
+                return capacity == null ? 0 : Integer.parseInt(capacity.trim());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+}
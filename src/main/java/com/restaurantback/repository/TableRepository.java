@@ -5,8 +5,12 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
 import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
 import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
 import com.restaurantback.models.Table;
+import com.restaurantback.utils.AppLogger;
+import com.restaurantback.utils.BookedSlots;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
@@ -16,19 +20,22 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 public class  TableRepository {
+    private static final AppLogger logger = AppLogger.getLogger(TableRepository.class);
+
     private final AmazonDynamoDB dynamoDB;
     private final String tableName = System.getenv("tablesTable");
     private final DynamoDbEnhancedClient enhancedClient;
+    private final SlotClaims slotClaims;
 
     @Inject
-    public TableRepository(AmazonDynamoDB dynamoDB, DynamoDbEnhancedClient enhancedClient) {
+    public TableRepository(AmazonDynamoDB dynamoDB, DynamoDbEnhancedClient enhancedClient, TableAvailabilityIndex availabilityIndex) {
         this.dynamoDB = dynamoDB;
         this.enhancedClient = enhancedClient;
-        System.out.println("[TableRepository] Initialized with DynamoDB client");
+        this.slotClaims = new SlotClaims(dynamoDB, tableName, "Table", availabilityIndex);
     }
 
     public Map<String, AttributeValue> getTableDataById(String tableId, String locationId) {
-        System.out.println("[getTableDataById] Fetching table: " + tableId + " at location: " + locationId);
+        logger.debug("[getTableDataById] Fetching table: {} at location: {}", tableId, locationId);
 
         GetItemRequest getItemRequest = new GetItemRequest()
                 .withTableName(tableName)
@@ -39,146 +46,88 @@ public class  TableRepository {
 
         GetItemResult result = dynamoDB.getItem(getItemRequest);
         if (result.getItem() == null) {
-            System.out.println("[getTableDataById] Table not found");
+            logger.debug("[getTableDataById] Table not found");
         } else {
-            System.out.println("[getTableDataById] Successfully retrieved table data");
+            logger.debug("[getTableDataById] Successfully retrieved table data");
         }
         return result.getItem();
     }
 
     public boolean doesTableExist(String tableId, String locationId) {
-        System.out.println("[doesTableExist] Checking existence of table: " + tableId);
+        logger.debug("[doesTableExist] Checking existence of table: {}", tableId);
         boolean exists = getTableDataById(tableId, locationId) != null;
-        System.out.println("[doesTableExist] Table exists: " + exists);
+        logger.debug("[doesTableExist] Table exists: {}", exists);
         return exists;
     }
 
 
     public Map<String, List<String>> getBookedTimeSlots(String tableId, String locationId) {
-        System.out.println("[getBookedTimeSlots] Getting bookings for table: " + tableId);
+        logger.debug("[getBookedTimeSlots] Getting bookings for table: {}", tableId);
 
         Map<String, AttributeValue> tableData = getTableDataById(tableId, locationId);
 
         if (tableData == null || !tableData.containsKey("booked")) {
-            System.out.println("[getBookedTimeSlots] No bookings found");
+            logger.debug("[getBookedTimeSlots] No bookings found");
             return Map.of();
         }
 
-        Map<String, List<String>> slots = tableData.get("booked").getM().entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> entry.getValue().getL().stream()
-                                .map(AttributeValue::getS)
-                                .collect(Collectors.toList())
-                ));
+        Map<String, List<String>> slots = BookedSlots.toMap(tableData.get("booked"));
 
-        System.out.println("[getBookedTimeSlots] Found " + slots.size() + " booking dates");
+        logger.debug("[getBookedTimeSlots] Found {} booking dates", slots.size());
         return slots;
     }
 
+    /**
+     * Books the slot on the table in one conditional write; ConflictException if it is already taken.
+     */
     public void updateTimeSlotForTableWithId(String tableId, String locationId, String date, String newTimeSlot) {
-        // Define the key for the item to update
-        Map<String, AttributeValue> key = Map.of(
-                "table_id", new AttributeValue().withS(tableId),
-                "location_id", new AttributeValue().withS(locationId)
-        );
-
-        GetItemRequest getRequest = new GetItemRequest()
-                .withTableName(tableName)
-                .withKey(key);
-
-        Map<String, AttributeValue> currentItem = dynamoDB.getItem(getRequest).getItem();
-        if (currentItem == null) {
-            throw new RuntimeException("Table not found");
-        }
-
-        // Prepare the update
-        UpdateItemRequest updateRequest;
-
-        if (!currentItem.containsKey("booked")) {
-            // Case 1: Create new booked map
-            Map<String, AttributeValue> newMap = new HashMap<>();
-            newMap.put(date, new AttributeValue().withL(List.of(new AttributeValue().withS(newTimeSlot))));
-
-            updateRequest = new UpdateItemRequest()
-                    .withTableName(tableName)
-                    .withKey(key)
-                    .withUpdateExpression("SET booked = :newMap")
-                    .withExpressionAttributeValues(Map.of(
-                            ":newMap", new AttributeValue().withM(newMap)
-                    ));
-        } else {
-            // Case 2: Update existing booked
-            updateRequest = new UpdateItemRequest()
-                    .withTableName(tableName)
-                    .withKey(key)
-                    .withUpdateExpression("SET booked.#date = list_append(if_not_exists(booked.#date, :emptyList), :newSlot)")
-                    .withExpressionAttributeNames(Map.of("#date", date))
-                    .withExpressionAttributeValues(Map.of(
-                            ":emptyList", new AttributeValue().withL(new ArrayList<>()),
-                            ":newSlot", new AttributeValue().withL(List.of(new AttributeValue().withS(newTimeSlot)))
-                    ));
-        }
-        System.out.println(key);
-        dynamoDB.updateItem(updateRequest);
+        slotClaims.claim(tableKey(tableId, locationId), date, newTimeSlot);
+        logger.debug("Time slot updated successfully for tableId: {}, locationId: {}, date: {}", tableId, locationId, date);
+    }
 
-        System.out.println("Time slot updated successfully for tableId: " + tableId + ", locationId: " + locationId + ", date: " + date);
+    /**
+     * Holds the slot for holdId until expiresAt (epoch seconds) so the holder can finish booking it;
+     * ConflictException if it is booked or held by someone else.
+     */
+    public void holdSlot(String tableId, String locationId, String date, String timeSlot, String holdId, String holder, long expiresAt) {
+        slotClaims.hold(tableKey(tableId, locationId), date, timeSlot, holdId, holder, expiresAt);
+        logger.debug("[holdSlot] Held {} on {} for table {} until {}", timeSlot, date, tableId, expiresAt);
     }
 
     public void removeTimeSlotFromTable(String tableId, String locationId, String date, String timeSlot) {
-        System.out.println("[removeTimeSlot] Removing slot: " + timeSlot + " from table: " + tableId);
-
-        int index = getTimeSlotIndex(tableId, locationId, date, timeSlot);
-
-        if (index != -1) {
-            System.out.println("[removeTimeSlot] Found slot at index: " + index);
-
-            UpdateItemRequest updateRequest = new UpdateItemRequest()
-                    .withTableName(tableName)
-                    .withKey(Map.of(
-                            "table_id", new AttributeValue().withS(tableId),
-                            "location_id", new AttributeValue().withS(locationId)
-                    ))
-                    .withUpdateExpression("REMOVE booked.#date[" + index + "]")
-                    .withExpressionAttributeNames(Map.of("#date", date));
-
-            dynamoDB.updateItem(updateRequest);
-            System.out.println("[removeTimeSlot] Slot removed successfully");
-        } else {
-            System.out.println("[removeTimeSlot] Slot not found - nothing to remove");
-        }
+        logger.debug("[removeTimeSlot] Removing slot: {} from table: {}", timeSlot, tableId);
+        slotClaims.release(tableKey(tableId, locationId), date, timeSlot);
     }
 
-    private int getTimeSlotIndex(String id, String locationId, String date, String timeSlot) {
-        System.out.println("[getTimeSlotIndex] Locating slot: " + timeSlot + " for date: " + date);
-
-        GetItemRequest getRequest = new GetItemRequest()
-                .withTableName(tableName)
-                .withKey(Map.of(
-                        "table_id", new AttributeValue().withS(id),
-                        "location_id", new AttributeValue().withS(locationId)
-                ))
-                .withProjectionExpression("booked.#date")
-                .withExpressionAttributeNames(Map.of("#date", date));
-
-        Map<String, AttributeValue> item = dynamoDB.getItem(getRequest).getItem();
-
-        if (item != null && item.containsKey("booked")) {
-            List<AttributeValue> timeSlots = item.get("booked")
-                    .getM()
-                    .get(date)
-                    .getL();
-
-            for (int i = 0; i < timeSlots.size(); i++) {
-                if (timeSlots.get(i).getS().equals(timeSlot)) {
-                    System.out.println("[getTimeSlotIndex] Found slot at index: " + i);
-                    return i;
+    /**
+     * Rewrites the booked map of every table still holding per-date lists, and adds the busy
+     * granules to tables that have none yet. Safe to run while bookings are being made: each item
+     * is replaced only if it has not changed since it was read.
+     */
+    public int migrateBookedSlots() {
+        int migrated = 0;
+        Map<String, AttributeValue> lastKey = null;
+        do {
+            ScanResult result = dynamoDB.scan(new ScanRequest()
+                    .withTableName(tableName)
+                    .withProjectionExpression("table_id, location_id, booked, busy")
+                    .withExclusiveStartKey(lastKey));
+            for (Map<String, AttributeValue> item : result.getItems()) {
+                if (slotClaims.migrate(tableKey(item.get("table_id").getS(), item.get("location_id").getS()), item.get("booked"), item.get("busy"))) {
+                    migrated++;
                 }
             }
-        }
+            lastKey = result.getLastEvaluatedKey();
+        } while (lastKey != null && !lastKey.isEmpty());
+        logger.info("[migrateBookedSlots] Migrated {} tables", migrated);
+        return migrated;
+    }
 
-        System.out.println("[getTimeSlotIndex] Slot not found");
-        return -1;
+    private static Map<String, AttributeValue> tableKey(String tableId, String locationId) {
+        return Map.of(
+                "table_id", new AttributeValue().withS(tableId),
+                "location_id", new AttributeValue().withS(locationId)
+        );
     }
 
     public boolean doesTableExistsWithIdAndLocationId(String tableId,String locationId){
@@ -1,29 +1,32 @@
 package com.restaurantback.services;
 
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
 import com.restaurantback.dto.reservation.BookingDto;
 import com.restaurantback.dto.reservation.ReservationDto;
+import com.restaurantback.dto.reservation.ReservationPageDTO;
 import com.restaurantback.dto.reservation.WaiterReservationDTO;
 import com.restaurantback.exceptions.reservationException.ConflictException;
 import com.restaurantback.exceptions.reservationException.ForbiddenException;
 import com.restaurantback.exceptions.reservationException.NotFoundException;
+import com.restaurantback.exceptions.reservationException.SlotTakenException;
 import com.restaurantback.exceptions.reservationException.UnauthorizedException;
 import com.restaurantback.models.Booking;
-import com.restaurantback.models.TimeSlot;
 import com.restaurantback.models.User;
 import com.restaurantback.repository.BookingRepository;
 import com.restaurantback.repository.EmployeeRepository;
-import com.restaurantback.utils.TimeslotDB;
+import com.restaurantback.repository.ReservationTransactions;
+import com.restaurantback.utils.IntervalSchedule;
+import com.restaurantback.utils.PageCursor;
+import com.restaurantback.utils.TimeOfDay;
+import com.restaurantback.utils.SlotCatalog;
+import com.restaurantback.utils.AppLogger;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.services.dynamodb.endpoints.internal.Value;
 
 import javax.validation.ValidationException;
-import java.time.*;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -32,15 +35,27 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class BookingService {
+    private static final AppLogger logger = AppLogger.getLogger(BookingService.class);
+
+    private static final int MAX_DURATION_MINUTES = 240;
+
+    private static final int MAX_TABLE_ATTEMPTS = 5;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final BookingRepository bookingRepository;
+    private final ReservationTransactions reservationTransactions;
     private final TableService tableService;
     private final LocationService locationService;
     private final WaiterService waiterService;
     private final EmployeeRepository employeeRepository;
     private final DynamoDbEnhancedClient enhancedClient;
 
-    public BookingService(BookingRepository bookingRepository, TableService tableService, WaiterService waiterService, LocationService locationService, EmployeeRepository employeeRepository, DynamoDbEnhancedClient enhancedClient) {
+    public BookingService(BookingRepository bookingRepository, ReservationTransactions reservationTransactions, TableService tableService, WaiterService waiterService, LocationService locationService, EmployeeRepository employeeRepository, DynamoDbEnhancedClient enhancedClient) {
         this.bookingRepository = bookingRepository;
+        this.reservationTransactions = reservationTransactions;
         this.tableService = tableService;
         this.waiterService = waiterService;
         this.locationService = locationService;
@@ -65,17 +80,48 @@ public class BookingService {
         return updatedBooking;
     }
 
-    // Existing methods remain unchanged
-    public List<ReservationDto> getListReservationDto(String email) {
-        System.out.println("Fetching reservations for email: " + email);
+    /**
+     * One page of the user's reservation history, newest first. dateFrom/dateTo ("yyyy-MM-dd",
+     * inclusive) and status are optional; cursor is the nextCursor of the previous page.
+     */
+    public ReservationPageDTO getReservationPage(String email, String dateFrom, String dateTo, String status,
+                                                 Integer limit, String cursor) {
+        logger.debug("Fetching reservations for email: {}", email);
         if (email == null) {
-            System.err.println("Authentication failed: email is null");
+            logger.warn("Authentication failed: email is null");
             throw new UnauthorizedException("Authentication required");
         }
+        validateDateFilter(dateFrom);
+        validateDateFilter(dateTo);
+        if (dateFrom != null && dateTo != null && dateFrom.compareTo(dateTo) > 0) {
+            throw new ValidationException("from must not be after to");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new ValidationException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Map<String, AttributeValue> startKey;
+        try {
+            startKey = PageCursor.decode(cursor, "user_email", email);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
 
-        List<Map<String, AttributeValue>> reservations = bookingRepository.getBookingsByEmail(email);
-        System.out.println("Found " + reservations.size() + " reservations for email: " + email);
-        return reservations.stream().map(this::toReservationDto).collect(Collectors.toList());
+        QueryResult result = bookingRepository.getBookingsByEmail(email, dateFrom, dateTo, status, pageSize, startKey);
+        List<ReservationDto> content = result.getItems().stream().map(this::toReservationDto).collect(Collectors.toList());
+        logger.debug("Found {} reservations for email: {}", content.size(), email);
+        return new ReservationPageDTO(content, PageCursor.encode(result.getLastEvaluatedKey(), "user_email"));
+    }
+
+    private void validateDateFilter(String date) {
+        if (date == null) {
+            return;
+        }
+        try {
+            TimeOfDay.epochDay(date);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
     }
 
     public ReservationDto toReservationDto(Map<String, AttributeValue> reservation) {
@@ -86,7 +132,7 @@ public class BookingService {
         ReservationDto reservationDto = new ReservationDto();
         try {
             Function<String, String> locationIdToLocationAddress = locationService::getLocationAddressById;
-            System.out.println(reservation);
+            logger.dump("reservation", () -> reservation);
             reservationDto.setId(getStringValue(reservation, "booking_id"));
             reservationDto.setLocationAddress(locationIdToLocationAddress.apply(getStringValue(reservation, "locationId")));
             reservationDto.setDate(getStringValue(reservation, "date"));
@@ -102,7 +148,7 @@ public class BookingService {
 
             return reservationDto;
         } catch (Exception e) {
-            System.err.println("Error converting reservation to DTO: " + e.getMessage());
+            logger.warn("Error converting reservation to DTO: {}", e.getMessage());
             throw new IllegalArgumentException("Invalid reservation data: " + e.getMessage());
         }
     }
@@ -121,7 +167,7 @@ public class BookingService {
     }
 
     public void deleteReservationWithId(String reservationId, String email, boolean isWaiter) {
-        System.out.println("reservation_id: " + reservationId + " email: " + email + " in deleteMethod");
+        logger.debug("Cancelling reservation {} for {} (waiter: {})", reservationId, email, isWaiter);
 
         if (email == null) {
             throw new UnauthorizedException("Authentication required");
@@ -163,7 +209,7 @@ public class BookingService {
     }
 
     private void verifyUserAccess(String reservationId, String userEmail) {
-        System.out.println("reservation_id: " + reservationId + " email: " + userEmail + " in VerifyUserAccess Method");
+        logger.debug("Checking that reservation {} belongs to {}", reservationId, userEmail);
 
         if (!bookingRepository.doesBookingExistForUserWithEmailAndId(reservationId, userEmail)) {
             throw new UnauthorizedException("User can only cancel their own reservations");
@@ -171,32 +217,8 @@ public class BookingService {
     }
 
     private void processCancellation(Map<String, AttributeValue> reservation) {
-        try {
-            System.out.println("IN processCancellation reservationMap: " + reservation);
-            String reservationId = reservation.get("booking_id").getS();
-            String tableId = reservation.get("table_id").getS();
-            String locationId = reservation.get("locationId").getS();
-            String waiterId = reservation.get("waiter_id").getS();
-            String reservationDate = reservation.get("date").getS();
-            String timeSlot = reservation.get("from").getS() + "-" + reservation.get("to").getS();
-            System.out.println("before email");
-            String email = reservation.get("user_email").getS();
-            System.out.println("after email");
-
-            // 1. Cancel the reservation
-            bookingRepository.deleteBookingWithId(reservationId, email);
-            System.out.println("After deleteReservationWithId");
-
-            // 2. Remove time slot from table's schedule
-            removeTimeSlotFromTable(tableId, locationId, reservationDate, timeSlot);
-            System.out.println("after table time slot removal");
-
-            // 3. Remove time slot from waiter's schedule
-            removeTimeSlotFromWaiter(waiterId, locationId, reservationDate, timeSlot);
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new ValidationException("Failed to cancel reservation: " + e.getMessage());
-        }
+        // status and both slot releases commit together; ConflictException if the booking moved meanwhile
+        reservationTransactions.cancelBooking(reservation);
     }
 
     private void verifyBookingForUserWithEmail(String reservationId, String email) {
@@ -210,45 +232,13 @@ public class BookingService {
         }
     }
 
-    private void removeTimeSlotFromTable(String tableId, String locationId, String date, String timeSlot) {
-        try {
-            Map<String, AttributeValue> tableData = tableService.getTableDataById(tableId, locationId);
-            if (tableData != null && tableData.containsKey("booked")) {
-                // Remove the specific time slot
-                // You'll need to implement this in TableService/Repository
-                tableService.removeTimeSlot(tableId, locationId, date, timeSlot);
-            }
-        } catch (Exception e) {
-            System.err.println("Error updating table schedule: " + e.getMessage());
-            throw new ValidationException("Failed to update table schedule");
-        }
-    }
-
-    private void removeTimeSlotFromWaiter(String waiterId, String locationId, String date, String timeSlot) {
-        try {
-            // Remove the specific time slot from waiter's schedule
-            // You'll need to implement this in WaiterService/Repository
-            waiterService.removeTimeSlot(waiterId, locationId, date, timeSlot);
-        } catch (Exception e) {
-            System.err.println("Error updating waiter schedule: " + e.getMessage());
-            throw new ValidationException("Failed to update waiter schedule");
-        }
-    }
-
     private boolean canCancelReservation(String date, String timeFrom) {
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-            LocalDateTime reservationDateTime = LocalDateTime.parse(date + "T" + timeFrom, formatter);
-
-            LocalDateTime currentTime = LocalDateTime.now(ZoneId.of("Asia/Kolkata")).truncatedTo(ChronoUnit.MINUTES);
-
-            System.out.println("Reservation time: " + reservationDateTime);
-            System.out.println("Current time (IST): " + currentTime);
-
-            long minutesUntilReservation = ChronoUnit.MINUTES.between(currentTime, reservationDateTime);
+            long minutesUntilReservation = TimeOfDay.epochMinute(date, timeFrom) - TimeOfDay.nowEpochMinute();
+            logger.debug("Reservation on {} at {} starts in {} minutes (IST)", date, timeFrom, minutesUntilReservation);
             return minutesUntilReservation > 30;
         } catch (Exception e) {
-            System.err.println("Error parsing date/time: " + e.getMessage());
+            logger.warn("Error parsing date/time: {}", e.getMessage());
             return false;
         }
     }
@@ -260,15 +250,43 @@ public class BookingService {
             throw new ValidationException("Booking details are required");
         }
 
+        validateRequest(booking);
+        validateTableAndLocationExistence(booking);
+        validateTableLogicalConstraints(booking);
+    }
+
+    private void validateRequest(BookingDto booking) {
+        resolveTimeTo(booking);
         validateRequiredFields(booking);
         validateBasicValues(booking);
         validateDateFormat(booking.getDate());
-        validateTableAndLocationExistence(booking);
-        validateTableLogicalConstraints(booking);
+    }
+
+    // a booking may give its length instead of an end time
+    private void resolveTimeTo(BookingDto booking) {
+        if (booking.getTimeTo() == null && booking.getTimeFrom() != null && booking.getDurationMinutes() != null) {
+            validateTime(booking.getTimeFrom());
+            booking.setTimeTo(endOf(booking.getTimeFrom(), booking.getDurationMinutes()));
+        }
+    }
+
+    private static int parseDuration(String durationMinutes) {
+        try {
+            return Integer.parseInt(durationMinutes.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid duration: " + durationMinutes);
+        }
+    }
+
+    private static String endOf(String timeFrom, int durationMinutes) {
+        try {
+            return IntervalSchedule.endOf(timeFrom, durationMinutes);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
     }
 
     private void validateRequiredFields(BookingDto booking) {
-        System.out.println("Validating required fields for booking");
         List<String> missingFields = new ArrayList<>();
 
         if (booking.getLocationId() == null) missingFields.add("locationId");
@@ -278,16 +296,15 @@ public class BookingService {
         if (booking.getTimeTo() == null) missingFields.add("timeTo");
 
         if (!missingFields.isEmpty()) {
-            System.err.println("Missing required fields in booking request: " + missingFields);
+            logger.warn("Missing required fields in booking request: {}", missingFields);
             throw new ValidationException("Missing required fields: " + String.join(", ", missingFields));
         }
-        System.out.println("All required fields present");
     }
 
     private void validateDateFormat(String date) {
         try {
-            LocalDate.parse(date); // TC057
-        } catch (DateTimeParseException e) {
+            TimeOfDay.epochDay(date); // TC057
+        } catch (IllegalArgumentException e) {
             throw new ValidationException("Invalid date format. Use YYYY-MM-DD");
         }
     }
@@ -303,17 +320,11 @@ public class BookingService {
     }
 
     private void validateTableLogicalConstraints(BookingDto booking) {
-        System.out.println("Validating logical constraints for booking");
-
-        if (!tableService.isTableAvailableForBooking(booking)) {
-            System.err.println("Table double booking attempt - Table: " + booking.getTableId() + ", Date: " + booking.getDate() + ", Time: " + booking.getTimeFrom() + "-" + booking.getTimeTo());
-            throw new ConflictException("Table is already booked for this time slot");
-        }
 
+        // double booking is rejected by the slot conditions in ReservationTransactions, not by a read here
         tableService.verifyTableCanAccommodateGuestsWithIdAndLocationId(booking.getTableId(), booking.getLocationId(), booking.getGuestsNumber());
 
 
-        System.out.println("Logical constraints validation passed");
     }
 
     public void validateBasicValues(BookingDto booking) {
@@ -336,37 +347,150 @@ public class BookingService {
         validateDateFormat(date);
         validateTime(timeFrom);
         validateTime(timeTo);
-        LocalDate bookingDate = LocalDate.parse(date);
-        LocalTime bookingTime = LocalTime.parse(timeFrom);
-        LocalTime endTime = LocalTime.parse(timeTo);
+        int bookingDate = TimeOfDay.epochDay(date);
+        short bookingTime = TimeOfDay.parse(timeFrom);
+        short endTime = TimeOfDay.parse(timeTo);
 
-        if (bookingTime.isAfter(endTime) || bookingTime.equals(endTime)) {
+        if (bookingTime >= endTime) {
             throw new ValidationException("End time must be after start time");
         }
+        validateTimeRange(bookingTime, endTime);
 
-        if (bookingDate.atTime(bookingTime).isBefore(LocalDate.now().atTime(LocalTime.now()))) {
+        if (TimeOfDay.epochMinute(bookingDate, bookingTime) < TimeOfDay.nowEpochMinute()) {
             throw new ValidationException("Cannot book for past date/time");
         }
     }
 
+    /**
+     * Bookings can start at any granule boundary and last up to MAX_DURATION_MINUTES, as long as they
+     * fall within the opening hours spanned by the slot catalog. Shared with waiter bookings.
+     */
+    static void validateTimeRange(int from, int to) {
+        if (!IntervalSchedule.isAligned(from) || !IntervalSchedule.isAligned(to)) {
+            throw new ValidationException("Booking times must be on a " + IntervalSchedule.GRANULE_MINUTES + " minute boundary");
+        }
+        if (to - from > MAX_DURATION_MINUTES) {
+            throw new ValidationException("A booking can last at most " + MAX_DURATION_MINUTES + " minutes");
+        }
+        if (from < SlotCatalog.opensAt() || to > SlotCatalog.closesAt()) {
+            throw new ValidationException("Bookings must be between " + TimeOfDay.format(SlotCatalog.opensAt())
+                    + " and " + TimeOfDay.format(SlotCatalog.closesAt()));
+        }
+    }
+
     private void validateTime(String time) {
         try {
-            LocalTime.parse(time);
-        } catch (DateTimeParseException e) {
+            TimeOfDay.parse(time);
+        } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Enter a valid Time in the Format HH:MM! Your input: " + time);
         }
     }
 
     public ReservationDto createReservation(BookingDto booking, String reservationId) {
-        System.out.println("bookingDto: " + booking);
+        if (booking != null && (booking.getTableId() == null || booking.getTableId().isBlank())) {
+            return createReservationWithAnyTable(booking, reservationId);
+        }
+        Map<String, AttributeValue> reservationMap = newReservation(booking, reservationId);
+
+        // booking, table slot and waiter slot in one transaction; ConflictException if a slot is taken
+        Map<String, AttributeValue> reservation;
+        try {
+            reservation = reservationTransactions.createBooking(reservationMap, booking.getHoldId());
+        } catch (SlotTakenException e) {
+            throw "Table".equals(e.getResource()) ? withAlternatives(e.getMessage(), booking, booking.getTableId()) : e;
+        }
+        if (booking.getHoldId() != null) {
+            tableService.holdConverted(booking.getUserEmail(), booking.getHoldId());
+        }
+        logger.info("Successfully created reservation: {}", reservationId);
+        return toReservationDto(reservation);
+    }
+
+    /**
+     * Auto-assign mode, used when no table is given: the smallest table that seats the party and is
+     * free according to the availability index is claimed. If another booking takes it first, the
+     * next candidate is tried with the same waiter, up to MAX_TABLE_ATTEMPTS tables.
+     */
+    private ReservationDto createReservationWithAnyTable(BookingDto booking, String reservationId) {
+        logger.debug("bookingDto: {}", booking);
+        validateRequest(booking);
+        if (!locationService.doesLocationExist(booking.getLocationId())) {
+            throw new NotFoundException("Location not found: " + booking.getLocationId());
+        }
+
+        List<String> candidates = tableService.getTableCandidates(booking.getLocationId(), booking.getDate(),
+                booking.getTimeFrom(), booking.getTimeTo(), Integer.parseInt(booking.getGuestsNumber()));
+        if (candidates.isEmpty()) {
+            throw withAlternatives("No table for " + booking.getGuestsNumber() + " guests is free on "
+                    + booking.getDate() + " at " + booking.getTimeFrom() + "-" + booking.getTimeTo(), booking, null);
+        }
+
+        String waiterId = waiterService.getLeastBusyWaiter(booking.getLocationId(), booking.getDate(), booking.getTimeFrom(), booking.getTimeTo());
+        logger.debug("Assigned waiter ID: {}", waiterId);
+
+        for (int i = 0; i < candidates.size() && i < MAX_TABLE_ATTEMPTS; i++) {
+            booking.setTableId(candidates.get(i));
+            try {
+                Map<String, AttributeValue> reservation = reservationTransactions.createBooking(reservationItem(booking, reservationId, waiterId));
+                logger.info("Successfully created reservation: {} on table {}", reservationId, booking.getTableId());
+                return toReservationDto(reservation);
+            } catch (SlotTakenException e) {
+                if (!"Table".equals(e.getResource())) {
+                    throw e;
+                }
+                logger.debug("Table {} was taken, trying the next one", booking.getTableId());
+            }
+        }
+        booking.setTableId(null);
+        throw withAlternatives("All suitable tables were just booked, please choose another time", booking, null);
+    }
+
+    // suggestions are best effort: the conflict is reported even if they cannot be computed
+    private ConflictException withAlternatives(String message, BookingDto booking, String tableId) {
+        try {
+            return new ConflictException(message, tableService.getAlternatives(booking.getLocationId(), booking.getDate(),
+                    booking.getTimeFrom(), booking.getTimeTo(), tableId, Integer.parseInt(booking.getGuestsNumber())));
+        } catch (RuntimeException e) {
+            logger.warn("Could not compute alternatives: {}", e.getMessage());
+            return new ConflictException(message);
+        }
+    }
+
+    // validates the request and assigns a waiter; nothing is written yet
+    private Map<String, AttributeValue> newReservation(BookingDto booking, String reservationId) {
+        logger.debug("bookingDto: {}", booking);
 
         // Validate business rules
         validateExistenceAndLogicalConstraints(booking);
 
         // Assign waiter
         String waiterId = waiterService.getLeastBusyWaiter(booking.getLocationId(), booking.getDate(), booking.getTimeFrom(), booking.getTimeTo());
-        System.out.println("Assigned waiter ID: " + waiterId);
+        logger.debug("Assigned waiter ID: {}", waiterId);
+
+        return reservationItem(booking, reservationId, waiterId);
+    }
+
+    // as newReservation for a moved booking, which keeps its waiter when they are still free
+    private Map<String, AttributeValue> movedReservation(BookingDto booking, Map<String, AttributeValue> existing) {
+        validateExistenceAndLogicalConstraints(booking);
+
+        String waiterId = existing.get("waiter_id").getS();
+        if (!isCurrentWaiterAvailable(existing, booking)) {
+            waiterId = waiterService.getLeastBusyWaiter(booking.getLocationId(), booking.getDate(), booking.getTimeFrom(), booking.getTimeTo());
+            logger.debug("Reassigned booking {} to waiter {}", existing.get("booking_id").getS(), waiterId);
+        }
+
+        return reservationItem(booking, existing.get("booking_id").getS(), waiterId);
+    }
 
+    // the booking's own slot does not count against its waiter; SlotClaims#moveUpdate hands shared granules over
+    private boolean isCurrentWaiterAvailable(Map<String, AttributeValue> existing, BookingDto booking) {
+        return waiterService.isWaiterAvailableForMove(existing.get("waiter_id").getS(), booking.getLocationId(),
+                existing.get("date").getS(), existing.get("from").getS() + "-" + existing.get("to").getS(),
+                booking.getDate(), booking.getTimeFrom(), booking.getTimeTo());
+    }
+
+    private Map<String, AttributeValue> reservationItem(BookingDto booking, String reservationId, String waiterId) {
         Map<String, AttributeValue> reservationMap = new HashMap<>();
         reservationMap.put("booking_id", new AttributeValue().withS(reservationId));
         reservationMap.put("user_email", new AttributeValue().withS(booking.getUserEmail()));
@@ -380,40 +504,8 @@ public class BookingService {
         reservationMap.put("status", new AttributeValue().withS("RESERVED"));
         reservationMap.put("byCustomer", new AttributeValue().withBOOL(true));
         reservationMap.put("feedbackId", new AttributeValue().withS("no_feedback"));
-
-        // Update waiter schedule
-        System.out.println("Updating waiter schedule - Waiter: " + waiterId);
-        updateWaiterSchedule(waiterId, booking);
-
-        // Update table schedule
-        System.out.println("Updating table schedule - Table: " + booking.getTableId());
-        updateTableSchedule(booking);
-
-        System.out.println("Reservation data: " + reservationMap);
-        Map<String, AttributeValue> reservation = bookingRepository.createBooking(reservationMap);
-        System.out.println("Successfully created reservation: " + reservationId);
-
-
-        System.out.println("Completed all updates for reservation: " + reservationId);
-        return toReservationDto(reservation);
-    }
-
-    private void updateWaiterSchedule(String waiterId, BookingDto booking) {
-        try {
-            waiterService.updateTimeSlotForWaiterWithIdAndLocationId(waiterId, booking.getLocationId(), booking.getDate(), booking.getTimeFrom() + "-" + booking.getTimeTo());
-        } catch (Exception e) {
-            System.err.println("Error updating waiter schedule: " + e.getMessage());
-            throw new RuntimeException("Failed to update waiter schedule for waiter: " + waiterId, e);
-        }
-    }
-
-    private void updateTableSchedule(BookingDto booking) {
-        try {
-            tableService.updateTimeSlotForTableWithIdAndLocationId(booking.getTableId(), booking.getLocationId(), booking.getDate(), booking.getTimeFrom() + "-" + booking.getTimeTo());
-        } catch (Exception e) {
-            System.err.println("Error updating table schedule: " + e.getMessage());
-            throw new RuntimeException("Failed to update table schedule for table: " + booking.getTableId(), e);
-        }
+        logger.debug("Reservation data: {}", reservationMap);
+        return reservationMap;
     }
 
     public ReservationDto updateBookingDateAndTimeWithId(String bookingId, String userEmail, Map<String, String> bodyMap, boolean isWaiter) {
@@ -424,13 +516,24 @@ public class BookingService {
             updateFields.put(entry.getKey(), new AttributeValue(entry.getValue()));
         }
 
+        if (!updateFields.containsKey("timeTo") && updateFields.containsKey("timeFrom") && bodyMap.get("durationMinutes") != null) {
+            validateTime(bodyMap.get("timeFrom"));
+            updateFields.put("timeTo", new AttributeValue(endOf(bodyMap.get("timeFrom"), parseDuration(bodyMap.get("durationMinutes")))));
+        }
+        updateFields.remove("durationMinutes");
+
         String timeFrom = updateFields.get("timeFrom").getS();
         String timeTo = updateFields.get("timeTo").getS();
 
-        TimeSlot timeSlot = parseTimeSlot(timeFrom);
-        if(timeSlot == null || !timeSlot.getTo().equalsIgnoreCase(timeTo)){
-            throw new NotFoundException("TimeSlot not found");
+        // any granule-aligned range within opening hours, not only the catalog slots
+        validateTime(timeFrom);
+        validateTime(timeTo);
+        short from = TimeOfDay.parse(timeFrom);
+        short to = TimeOfDay.parse(timeTo);
+        if (from >= to) {
+            throw new ValidationException("End time must be after start time");
         }
+        validateTimeRange(from, to);
 
         try {
             if (updateFields.isEmpty())
@@ -447,7 +550,7 @@ public class BookingService {
             if (!isWaiter) existingReservation = bookingRepository.getBookingByIdAndEmail(bookingId, userEmail);
             else existingReservation = bookingRepository.getBookingById(bookingId);
 
-            System.out.printf("Existing Reservation: %s", existingReservation);
+            logger.debug("Updating reservation {}: {}", bookingId, existingReservation);
 
             validateReservationStatus(existingReservation);
 
@@ -457,35 +560,27 @@ public class BookingService {
             }
 
             Map<String, AttributeValue> updatedBooking = getStringAttributeValueMap(updateFields, existingReservation);
-            System.out.printf("The merged data to be inserted into the table: %s", updatedBooking);
+            logger.debug("Reservation {} after the update: {}", bookingId, updatedBooking);
 
             BookingDto bookingDto = convertToBookingDto(updatedBooking);
-            System.out.printf("updated Booking Dto: %s\n", bookingDto);
 
             ReservationDto reservationDto = null;
 
             if (updateFields.containsKey("date") || updateFields.containsKey("timeFrom") || updateFields.containsKey("timeTo")) {
-                removeTimeSlotFromTable(existingReservation.get("table_id").getS(), existingReservation.get("locationId").getS(), existingReservation.get("date").getS(), existingReservation.get("from").getS() + "-" + existingReservation.get("to").getS());
-                removeTimeSlotFromWaiter(existingReservation.get("waiter_id").getS(), existingReservation.get("locationId").getS(), existingReservation.get("date").getS(), existingReservation.get("from").getS() + "-" + existingReservation.get("to").getS());
-
-                try {
-                    if (isWaiter) {
-                        if (!tableService.isTableAvailableForBooking(bookingDto)) {
-                            throw new ConflictException("Table not available for new time slot");
-                        }
-                        if (!waiterService.isWaiterAvailableByIdAndLocationIdForDateAndTime(existingReservation.get("waiter_id").getS(), bookingDto.getLocationId(), bookingDto.getDate(), bookingDto.getTimeFrom(), bookingDto.getTimeTo())) {
-                            throw new ConflictException("Waiter is not available for new time slot and date");
-                        }
-                        updateTableSchedule(bookingDto);
-                        updateWaiterSchedule(existingReservation.get("waiter_id").getS(), bookingDto);
-                        reservationDto = toReservationDto(bookingRepository.createBooking(updatedBooking));
-                    } else {
-                        reservationDto = createReservation(bookingDto, bookingId);
+                // the old slots are freed and the new ones claimed in the same transaction as the booking
+                boolean slotChanged = !bookingDto.getDate().equals(existingReservation.get("date").getS())
+                        || !bookingDto.getTimeFrom().equals(existingReservation.get("from").getS())
+                        || !bookingDto.getTimeTo().equals(existingReservation.get("to").getS());
+                if (!slotChanged) {
+                    tableService.verifyTableCanAccommodateGuestsWithIdAndLocationId(bookingDto.getTableId(), bookingDto.getLocationId(), bookingDto.getGuestsNumber());
+                    reservationDto = toReservationDto(reservationTransactions.moveBooking(existingReservation, updatedBooking));
+                } else if (isWaiter) {
+                    if (!isCurrentWaiterAvailable(existingReservation, bookingDto)) {
+                        throw new ConflictException("Waiter is not available for new time slot and date");
                     }
-                } catch (Exception e) {
-                    updateTableSchedule(convertToBookingDto(existingReservation));
-                    updateWaiterSchedule(existingReservation.get("waiter_id").getS(), convertToBookingDto(existingReservation));
-                    throw e;
+                    reservationDto = toReservationDto(reservationTransactions.moveBooking(existingReservation, updatedBooking));
+                } else {
+                    reservationDto = toReservationDto(reservationTransactions.moveBooking(existingReservation, movedReservation(bookingDto, existingReservation)));
                 }
             } else if (updateFields.containsKey("guestsNumber")) {
                 tableService.verifyTableCanAccommodateGuestsWithIdAndLocationId(bookingDto.getTableId(), bookingDto.getLocationId(), updateFields.get("guestsNumber").getS());
@@ -496,8 +591,7 @@ public class BookingService {
             return reservationDto;
 
         } catch (Exception e) {
-            System.err.println("Error occurred while updating booking: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("Error occurred while updating booking: {}", e.getMessage(), e);
             throw e;
         }
     }
@@ -524,12 +618,8 @@ public class BookingService {
         }
 
         // Get existing booking
-        Map<String, AttributeValue> repository = bookingRepository.getBookingById(bookingId);
-        BookingDto bookingDto = convertToBookingDto(repository);
-
-        // Store old table info for later removal
-        String oldTableId = bookingDto.getTableId();
-        String oldLocationId = bookingDto.getLocationId();
+        Map<String, AttributeValue> existing = bookingRepository.getBookingById(bookingId);
+        BookingDto bookingDto = convertToBookingDto(existing);
 
         // Update the booking DTO with new table ID and location ID
         bookingDto.setTableId(tableId);
@@ -539,37 +629,29 @@ public class BookingService {
         validateTableAndLocationExistence(bookingDto);
         validateTableLogicalConstraints(bookingDto);
 
-        // Remove time slot from old table
-        removeTimeSlotFromTable(oldTableId, oldLocationId,
-                bookingDto.getDate(), bookingDto.getTimeFrom() + "-" + bookingDto.getTimeTo());
-
-        // Update table schedule with new table
-        updateTableSchedule(bookingDto);
+        Map<String, AttributeValue> updated = new HashMap<>(existing);
+        updated.put("table_id", new AttributeValue(tableId));
+        updated.put("locationId", new AttributeValue(locationId));  // Note: case sensitive key
 
-        // Update repository with new values
-        repository.put("table_id", new AttributeValue(tableId));
-        repository.put("locationId", new AttributeValue(locationId));  // Note: case sensitive key
-
-        return toReservationDto(bookingRepository.createBooking(repository));
+        // frees the old table's slot and claims the new one together with the booking update
+        return toReservationDto(reservationTransactions.moveBooking(existing, updated));
     }
 
     public List<WaiterReservationDTO> getWaiterReservation(String email, String date, String time, String tableNumber) {
         String waiterID = employeeRepository.getWaiterIdFromEmail(email);
-        System.out.println("Waiter id = " + waiterID);
-        System.out.println(date);
-        List<Booking> bookings1 = bookingRepository.getBookingsByIdAndDate(waiterID, date);
-        System.out.println(bookings1);
-
-        List<Booking> bookings = filterBookingByTimeAndTable(bookings1, time, tableNumber);
-        System.out.println(bookings);
+        logger.debug("Agenda of waiter {} on {}", waiterID, date);
+        String timeFrom = time != null ? time.split("-")[0] : null;
+        List<Booking> bookings = bookingRepository.getWaiterAgenda(waiterID, date, timeFrom, tableNumber);
 
+        // the name lookups scan the user table, so each email is resolved once per agenda
+        Map<String, String> names = new HashMap<>();
         List<WaiterReservationDTO> waiterReservationDTOList = new ArrayList<>();
         for (Booking booking : bookings) {
             String doneBy;
             if (booking.isByCustomer()) {
-                doneBy = "Customer " + getNameByEmail(booking.getUserEmail());
+                doneBy = "Customer " + names.computeIfAbsent(booking.getUserEmail(), this::getNameByEmail);
             } else {
-                doneBy = "Waiter " + getNameByEmail(email);
+                doneBy = "Waiter " + names.computeIfAbsent(email, this::getNameByEmail);
             }
 
             WaiterReservationDTO waiterReservationDTO = new WaiterReservationDTO(locationService.getLocationAddressById(booking.getLocationId()), booking.getTableId(), date, booking.getTimeFrom() + "-" + booking.getTimeTo(), doneBy, booking.getGuestsNumber(), booking.getReservationId(), booking.getStatus(), waiterID);
@@ -579,12 +661,6 @@ public class BookingService {
         return waiterReservationDTOList;
     }
 
-    private List<Booking> filterBookingByTimeAndTable(List<Booking> bookings, String time, String tableNumber) {
-        String startTime = time != null ? time.split("-")[0] : null;
-
-        return bookings.stream().filter(booking -> startTime == null || booking.getTimeFrom().equalsIgnoreCase(startTime)).filter(booking -> tableNumber == null || booking.getTableId().equalsIgnoreCase(tableNumber)).toList();
-    }
-
 
     private String getNameByEmail(String userEmail) {
         String name = System.getenv("userTable");
@@ -596,59 +672,42 @@ public class BookingService {
         return user.getFirstName() + user.getLastName();
     }
 
-    public void updateBookings() {
-        List<Booking> bookings = bookingRepository.getAllBookings();
-
-        System.out.println(bookings);
-
-        ZoneId zoneId = ZoneId.of("Asia/Kolkata");
-        LocalDateTime now = ZonedDateTime.now(zoneId).toLocalDateTime();
-
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-
+    /**
+     * Moves the bookings of the date along using the end time index instead of a scan: bookings that
+     * ended in [from, now) become FINISHED, and bookings that have started and end within
+     * MAX_DURATION_MINUTES of now become IN PROGRESS. Cancelled bookings and bookings already in the
+     * right status are not written. Returns the bookings read, with their statuses as updated.
+     */
+    public List<Booking> updateBookingStatuses(String date, short from, short now) {
+        short until = (short) Math.min(TimeOfDay.MINUTES_PER_DAY - 1, now + MAX_DURATION_MINUTES);
+        int updated = 0;
+        List<Booking> bookings = bookingRepository.findBookingByDateAndTime(date, from, until);
         for (Booking booking : bookings) {
             try {
-                LocalDate bookingDate = LocalDate.parse(booking.getDate(), dateFormatter);
-                LocalTime fromTime = LocalTime.parse(booking.getTimeFrom(), timeFormatter);
-                LocalTime toTime = LocalTime.parse(booking.getTimeTo(), timeFormatter);
-                LocalDateTime fromDateTime = LocalDateTime.of(bookingDate, fromTime);
-                LocalDateTime toDateTime = LocalDateTime.of(bookingDate, toTime);
-
-                System.out.println(fromTime);
-                System.out.println(toTime);
-
-                System.out.println(now);
-                // Logic to update status
-                if (toDateTime.isBefore(now) && !booking.getStatus().equalsIgnoreCase("Cancelled")) {
-                    booking.setStatus("FINISHED");
-                } else if (!now.isBefore(fromDateTime) && !now.isAfter(toDateTime) && !booking.getStatus().equalsIgnoreCase("Cancelled")) {
-                    booking.setStatus("IN PROGRESS");
+                short bookingFrom = TimeOfDay.parse(booking.getTimeFrom());
+                short bookingTo = TimeOfDay.parse(booking.getTimeTo());
+
+                String status;
+                if (bookingTo < now) {
+                    status = "FINISHED";
+                } else if (bookingFrom <= now) {
+                    status = "IN PROGRESS";
                 } else {
-                    continue; // Not finished or in-progress; skip update
+                    continue;
+                }
+                if (status.equalsIgnoreCase(booking.getStatus()) || "CANCELLED".equalsIgnoreCase(booking.getStatus())) {
+                    continue;
                 }
 
-                System.out.println(booking);
-
-                // Save updated booking
-                bookingRepository.saveBooking(booking); // or putItem() if you're doing it manually
-
-            } catch (Exception e) {
-                System.err.println("Error parsing date/time for booking ID: " + booking.getReservationId());
-                e.printStackTrace();
+                if (bookingRepository.updateStatus(booking, status)) {
+                    booking.setStatus(status);
+                    updated++;
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid time range for booking {}: {}", booking.getReservationId(), e.getMessage());
             }
         }
-    }
-
-    private TimeSlot parseTimeSlot(String timeSlotString) {
-        System.out.println(timeSlotString);
-
-
-        System.out.println("Converting to Entity");
-        // Fetch TimeSlot from DB to get the ID
-        TimeSlot fetchedTimeSlot = TimeslotDB.getTimeSlotFromDB(timeSlotString);
-
-        System.out.println(fetchedTimeSlot);
-        return fetchedTimeSlot;
+        logger.info("Updated the status of {} bookings on {}", updated, date);
+        return bookings;
     }
 }
@@ -4,6 +4,7 @@ import com.restaurantback.dto.DishDTO;
 import com.restaurantback.dto.DishSmallDTO;
 import com.restaurantback.exceptions.dishException.DishNotFoundException;
 import com.restaurantback.models.Dish;
+import com.restaurantback.utils.CatalogVersion;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
@@ -17,6 +18,7 @@ public class DishesService {
 
     private final DynamoDbEnhancedClient enhancedClient;
     private final String tableName;
+    private final CatalogVersion catalogVersion = new CatalogVersion("dishes");
 
     public DishesService(DynamoDbEnhancedClient dynamoDbEnhancedClient) {
         this.enhancedClient = dynamoDbEnhancedClient;
@@ -24,9 +26,7 @@ public class DishesService {
     }
 
     public List<Dish> getPopularDishes(){
-        DynamoDbTable<Dish> table = enhancedClient.table(tableName, TableSchema.fromBean(Dish.class));
-        List<Dish> dishes = new ArrayList<>();
-        table.scan().items().forEach(dishes::add);
+        List<Dish> dishes = scanDishes();
         List<Dish> popularDishes = new ArrayList<>();
         System.out.println(dishes);
         for(Dish dish : dishes){
@@ -39,17 +39,14 @@ public class DishesService {
     }
 
     public List<Dish> getListOfAllDishes(){
-        DynamoDbTable<Dish> table = enhancedClient.table(tableName, TableSchema.fromBean(Dish.class));
-        List<Dish> dishes = new ArrayList<>();
-        table.scan().items().forEach(dishes::add);
+        List<Dish> dishes = scanDishes();
         return dishes;
     }
 
     private List<DishDTO> getFullDishDTOs() {
-        DynamoDbTable<Dish> table = enhancedClient.table(tableName, TableSchema.fromBean(Dish.class));
         List<DishDTO> dishes = new ArrayList<>();
 
-        table.scan().items().forEach(dish -> {
+        scanDishes().forEach(dish -> {
             if (!dish.isAvailable()) {
                 dish.setState("On stop");
             }
@@ -93,9 +90,7 @@ public class DishesService {
     }
 
     public DishDTO getDishesById(String dishId) {
-        DynamoDbTable<Dish> table = enhancedClient.table(tableName, TableSchema.fromBean(Dish.class));
-        List<Dish> dishes = new ArrayList<>();
-        table.scan().items().forEach(dishes::add);
+        List<Dish> dishes = scanDishes();
 
         for (Dish dish : dishes) {
             if (dish.getId().equalsIgnoreCase(dishId)) {
@@ -123,9 +118,7 @@ public class DishesService {
     }
 
     public List<Dish> getDishCategorizedByType(String dishTypeFilter) {
-        DynamoDbTable<Dish> table = enhancedClient.table(tableName, TableSchema.fromBean(Dish.class));
-        List<Dish> dishes = new ArrayList<>();
-        table.scan().items().forEach(dishes::add);
+        List<Dish> dishes = scanDishes();
 
         for (Dish dish : dishes) {
             if (!dish.isAvailable()) {
@@ -204,5 +197,15 @@ public class DishesService {
                 .collect(Collectors.toList());
     }
 
+    public CatalogVersion getCatalogVersion() {
+        return catalogVersion;
+    }
 
+    private List<Dish> scanDishes() {
+        DynamoDbTable<Dish> table = enhancedClient.table(tableName, TableSchema.fromBean(Dish.class));
+        List<Dish> dishes = new ArrayList<>();
+        table.scan().items().forEach(dishes::add);
+        catalogVersion.observe(dishes.hashCode());
+        return dishes;
+    }
 }
@@ -4,12 +4,10 @@ import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.model.*;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.restaurantback.dto.CognitoToken;
 import com.restaurantback.dto.EmployeeRequestDTO;
 import com.restaurantback.exceptions.AuthorizationException.NotAuthorizedException;
 import com.restaurantback.models.Role;
-import com.restaurantback.utils.GetAccessTokenFromRequest;
-import com.restaurantback.utils.GetDataFromJwt;
+import com.restaurantback.utils.TokenClaimsExtractor;
 
 import java.util.Map;
 import java.util.UUID;
@@ -103,11 +101,6 @@ public class EmployeeService {
 
     private String getRoleFromToken(APIGatewayProxyRequestEvent request) {
 
-        String idToken = GetAccessTokenFromRequest.getIdToken(request);
-
-        CognitoToken cognitoToken = GetDataFromJwt.extractDataFromToken(idToken);
-        System.out.println(cognitoToken.toString() + " " + cognitoToken.getRole());
-
-        return cognitoToken.getRole();
+        return TokenClaimsExtractor.getPrincipal(request).getRole();
     }
 }
\ No newline at end of file
@@ -10,7 +10,7 @@ import com.restaurantback.dto.PaginatedResponse;
 import com.restaurantback.dto.report.FeedbackUpdate;
 import com.restaurantback.models.Booking;
 import com.restaurantback.models.Feedback;
-import org.json.JSONObject;
+import com.restaurantback.utils.JsonSerializer;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
@@ -184,7 +184,7 @@ public class FeedbackService {
             String queueURL = generateQueueUrl(queueName);
             SendMessageRequest sendMessageRequest = new SendMessageRequest()
                     .withQueueUrl(queueURL)
-                    .withMessageBody(new JSONObject(item).toString())
+                    .withMessageBody(JsonSerializer.FEEDBACK.writeValueAsString(item))
                     .withMessageAttributes(Map.of("eventType", new MessageAttributeValue().withStringValue("NEW_FEEDBACK_EVENT").withDataType("String")));
 
             amazonSQSClient.sendMessage(sendMessageRequest);
@@ -198,7 +198,7 @@ public class FeedbackService {
             String queueURL = generateQueueUrl(queueName);
             SendMessageRequest sendMessageRequest = new SendMessageRequest()
                     .withQueueUrl(queueURL)
-                    .withMessageBody(new JSONObject(item).toString())
+                    .withMessageBody(JsonSerializer.FEEDBACK_UPDATE.writeValueAsString(item))
                     .withMessageAttributes(Map.of("eventType", new MessageAttributeValue().withStringValue("FEEDBACK_EVENT").withDataType("String")));
 
             amazonSQSClient.sendMessage(sendMessageRequest);
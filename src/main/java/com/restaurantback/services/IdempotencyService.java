@@ -0,0 +1,104 @@
+package com.restaurantback.services;
+
+import com.restaurantback.exceptions.reservationException.ConflictException;
+import com.restaurantback.models.IdempotencyRecord;
+import com.restaurantback.repository.IdempotencyRepository;
+import com.restaurantback.utils.AppLogger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tracks Idempotency-Key usage for the booking endpoints. Completed responses are kept in the
+ * idempotency table and, for recently seen keys, in an in-process LRU so a retry landing on the
+ * same container is answered without any DynamoDB call.
+ */
+public class IdempotencyService {
+    private static final AppLogger logger = AppLogger.getLogger(IdempotencyService.class);
+
+    private static final int CACHE_SIZE = 1024;
+
+    private final IdempotencyRepository idempotencyRepository;
+
+    private final Map<String, IdempotencyRecord> completed = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public IdempotencyService(IdempotencyRepository idempotencyRepository) {
+        this.idempotencyRepository = idempotencyRepository;
+    }
+
+    /**
+     * Returns the stored response when the key has already been used for this request, or null once
+     * the caller holds the key and should go on with the booking. A key reused for a different
+     * request, or still held by a booking in flight, is a ConflictException.
+     */
+    public IdempotencyRecord begin(String key, String requestHash) {
+        IdempotencyRecord cached;
+        synchronized (completed) {
+            cached = completed.get(key);
+        }
+        if (cached != null) {
+            return replayable(cached, requestHash);
+        }
+
+        if (idempotencyRepository.claim(key, requestHash)) {
+            return null;
+        }
+
+        IdempotencyRecord stored = idempotencyRepository.find(key);
+        if (stored == null) {
+            // expired or released between the claim and the read
+            if (idempotencyRepository.claim(key, requestHash)) {
+                return null;
+            }
+            throw new ConflictException("A request with this Idempotency-Key is already being processed");
+        }
+        if (!stored.isCompleted()) {
+            if (!requestHash.equals(stored.getRequestHash())) {
+                throw new ConflictException("Idempotency-Key has already been used for a different request");
+            }
+            throw new ConflictException("A request with this Idempotency-Key is already being processed");
+        }
+
+        remember(stored);
+        return replayable(stored, requestHash);
+    }
+
+    public void complete(String key, String requestHash, int statusCode, Map<String, String> headers, String body) {
+        try {
+            idempotencyRepository.complete(key, statusCode, headers, body);
+        } catch (Exception e) {
+            logger.warn("Failed to store response for idempotency key {}: {}", key, e.getMessage());
+            return;
+        }
+        remember(new IdempotencyRecord(key, IdempotencyRecord.COMPLETED, requestHash, statusCode, headers, body));
+    }
+
+    /**
+     * Frees the key after a failed attempt so the client can retry it.
+     */
+    public void abandon(String key) {
+        try {
+            idempotencyRepository.release(key);
+        } catch (Exception e) {
+            logger.warn("Failed to release idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void remember(IdempotencyRecord idempotencyRecord) {
+        synchronized (completed) {
+            completed.put(idempotencyRecord.getKey(), idempotencyRecord);
+        }
+    }
+
+    private static IdempotencyRecord replayable(IdempotencyRecord idempotencyRecord, String requestHash) {
+        if (!requestHash.equals(idempotencyRecord.getRequestHash())) {
+            throw new ConflictException("Idempotency-Key has already been used for a different request");
+        }
+        return idempotencyRecord;
+    }
+}
@@ -7,6 +7,7 @@ import com.restaurantback.exceptions.reservationException.NotFoundException;
 import com.restaurantback.models.Dish;
 import com.restaurantback.models.Location;
 import com.restaurantback.repository.LocationRepository;
+import com.restaurantback.utils.CatalogVersion;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
@@ -21,6 +22,7 @@ public class LocationService {
     private final String tableName;
     private final DishesService dishesService;
     private final LocationRepository locationRepository;
+    private final CatalogVersion catalogVersion = new CatalogVersion("locations");
 
     public LocationService(DynamoDbEnhancedClient dynamoDbEnhancedClient, DishesService dishesService, LocationRepository locationRepository) {
         this.enhancedClient = dynamoDbEnhancedClient;
@@ -30,9 +32,7 @@ public class LocationService {
     }
 
     public List<LocationSmallDTO> getAllLocations(){
-        DynamoDbTable<Location> table = enhancedClient.table(tableName, TableSchema.fromBean(Location.class));
-        List<Location> locations = new ArrayList<>();
-        table.scan().items().forEach(locations::add);
+        List<Location> locations = scanLocations();
         List<LocationSmallDTO> locationSmallDTOS = new ArrayList<>();
         for(Location location : locations){
             locationSmallDTOS.add(new LocationSmallDTO(location.getId(), location.getAddress()));
@@ -55,9 +55,7 @@ public class LocationService {
     }
 
     public List<Location> getAllLocationsList(){
-        DynamoDbTable<Location> table = enhancedClient.table(tableName, TableSchema.fromBean(Location.class));
-        List<Location> locations = new ArrayList<>();
-        table.scan().items().forEach(locations::add);
+        List<Location> locations = scanLocations();
         return locations;
     }
 
@@ -102,6 +100,19 @@ public class LocationService {
         return locationRepository.doesLocationExist(locationId);
     }
 
+    public CatalogVersion getCatalogVersion() {
+        return catalogVersion;
+    }
 
+    public CatalogVersion getDishesCatalogVersion() {
+        return dishesService.getCatalogVersion();
+    }
 
+    private List<Location> scanLocations() {
+        DynamoDbTable<Location> table = enhancedClient.table(tableName, TableSchema.fromBean(Location.class));
+        List<Location> locations = new ArrayList<>();
+        table.scan().items().forEach(locations::add);
+        catalogVersion.observe(locations.hashCode());
+        return locations;
+    }
 }
@@ -3,12 +3,10 @@ package com.restaurantback.services;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.model.*;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
-import com.restaurantback.dto.CognitoToken;
 import com.restaurantback.dto.profile.ProfileResponse;
 import com.restaurantback.dto.profile.PutUsersProfileRequest;
 import com.restaurantback.utils.Base64ImageHandler;
-import com.restaurantback.utils.GetAccessTokenFromRequest;
-import com.restaurantback.utils.GetDataFromJwt;
+import com.restaurantback.utils.TokenClaimsExtractor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -110,13 +108,7 @@ public class ProfileService {
     }
 
     private String getEmailFromToken(APIGatewayProxyRequestEvent request) {
-        String idToken = GetAccessTokenFromRequest.getIdToken(request);
-        logger.info("id token: {}", idToken);
-
-        CognitoToken cognitoToken = GetDataFromJwt.extractDataFromToken(idToken);
-        logger.info("Cognito Token: {}", cognitoToken.toString());
-
-        String email = cognitoToken.getEmail();
+        String email = TokenClaimsExtractor.getPrincipal(request).getEmail();
         logger.info("Email of user: {}", email);
 
         return email;
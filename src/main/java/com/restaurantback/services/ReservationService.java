@@ -2,39 +2,30 @@ package com.restaurantback.services;
 
 import com.restaurantback.dto.ReservationByWaiterDTO;
 import com.restaurantback.dto.WaiterBookingDTO;
-import com.restaurantback.exceptions.reservationException.ConflictException;
 import com.restaurantback.exceptions.reservationException.ForbiddenException;
-import com.restaurantback.exceptions.reservationException.NotFoundException;
 import com.restaurantback.models.Booking;
-import com.restaurantback.models.Table;
-import com.restaurantback.models.Waiter;
 import com.restaurantback.repository.*;
+import com.restaurantback.utils.IntervalSchedule;
 
-import java.util.List;
-import java.util.Map;
+import javax.validation.ValidationException;
 
 public class ReservationService {
     private final BookingRepository bookingRepository;
+    private final ReservationTransactions reservationTransactions;
     private final EmployeeRepository employeeRepository;
-    private final WaiterRepository waiterRepository;
-    private final TableRepository tableRepository;
     private final LocationService locationService;
     private final UserRepository userRepository;
 
-    public ReservationService(BookingRepository bookingRepository, EmployeeRepository employeeRepository, WaiterRepository waiterRepository, TableRepository tableRepository, LocationService locationService, UserRepository userRepository) {
+    public ReservationService(BookingRepository bookingRepository, ReservationTransactions reservationTransactions, EmployeeRepository employeeRepository, LocationService locationService, UserRepository userRepository) {
         this.bookingRepository = bookingRepository;
+        this.reservationTransactions = reservationTransactions;
         this.employeeRepository = employeeRepository;
-        this.waiterRepository = waiterRepository;
-        this.tableRepository = tableRepository;
         this.locationService = locationService;
         this.userRepository = userRepository;
     }
 
     public ReservationByWaiterDTO bookTable(String email, WaiterBookingDTO waiterBookingDTO, String id) {
-        String date = waiterBookingDTO.getDate();
-        String from = waiterBookingDTO.getTimeFrom();
-        String to = waiterBookingDTO.getTimeTo();
-        Booking booking = new Booking();
+        Booking booking;
         boolean flag = false;
 
         if (Integer.parseInt(waiterBookingDTO.getGuestsNumber()) < 1 && Integer.parseInt(waiterBookingDTO.getGuestsNumber()) > 10) {
@@ -43,23 +34,45 @@ public class ReservationService {
 
         String waiterId = employeeRepository.getWaiterIdFromEmail(email);
         String locationId = employeeRepository.getLocationIdFromEmail(email);
-        if (waiterAvailableOnDateAndTime(waiterId, date, from, to) && tableAvailableOnDateAndTime(waiterBookingDTO.getTableNumber(), date, from, to, locationId)) {
-            if (waiterBookingDTO.getClientType().equalsIgnoreCase("visitor")) {
-                booking = bookingRepository.makeBookingForVisitor(waiterBookingDTO, waiterId, id, locationId);
-            } else if (waiterBookingDTO.getClientType().equalsIgnoreCase("customer")) {
-                booking = bookingRepository.makeBookingForCustomer(waiterBookingDTO, waiterId, id, locationId);
-                flag = true;
-            } else {
-                throw new ForbiddenException("Not allowed");
-            }
+        String clientType = waiterBookingDTO.getClientType();
+        if (!clientType.equalsIgnoreCase("visitor") && !clientType.equalsIgnoreCase("customer")) {
+            throw new ForbiddenException("Not allowed");
         }
 
-        waiterRepository.updateTimeSlotForWaiterWithId(waiterId, booking.getLocationId(), booking.getDate(), booking.getTimeFrom() + "-" + booking.getTimeTo());
-        tableRepository.updateTimeSlotForTableWithId(booking.getTableId(), booking.getLocationId(), booking.getDate(), booking.getTimeFrom() + "-" + booking.getTimeTo());
+        resolveTimeRange(waiterBookingDTO);
+
+        if (clientType.equalsIgnoreCase("visitor")) {
+            booking = bookingRepository.newVisitorBooking(waiterBookingDTO, waiterId, id, locationId);
+        } else {
+            booking = bookingRepository.newCustomerBooking(waiterBookingDTO, waiterId, id, locationId);
+            flag = true;
+        }
+
+        // booking, table slot and waiter slot are written in one transaction; ConflictException if a slot is taken
+        reservationTransactions.createBooking(BookingRepository.toItem(booking));
 
         return convertToDTO(booking, flag, email);
     }
 
+    // a length may be given instead of timeTo; the range is held to the same rules as customer bookings
+    private void resolveTimeRange(WaiterBookingDTO waiterBookingDTO) {
+        if (waiterBookingDTO.getTimeFrom() == null) {
+            throw new ValidationException("Time from is required");
+        }
+        try {
+            if (waiterBookingDTO.getTimeTo() == null && waiterBookingDTO.getDurationMinutes() != null) {
+                waiterBookingDTO.setTimeTo(IntervalSchedule.endOf(waiterBookingDTO.getTimeFrom(), waiterBookingDTO.getDurationMinutes()));
+            }
+            int[] range = IntervalSchedule.parse(waiterBookingDTO.getTimeFrom() + "-" + waiterBookingDTO.getTimeTo());
+            if (range == null) {
+                throw new ValidationException("Invalid time range: " + waiterBookingDTO.getTimeFrom() + "-" + waiterBookingDTO.getTimeTo());
+            }
+            BookingService.validateTimeRange(range[0], range[1]);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+    }
+
     private ReservationByWaiterDTO convertToDTO(Booking booking, Boolean flag, String waiterEmail) {
         ReservationByWaiterDTO dto = new ReservationByWaiterDTO();
         dto.setDate(booking.getDate());
@@ -77,40 +90,4 @@ public class ReservationService {
 
         return dto;
     }
-
-    private boolean tableAvailableOnDateAndTime(String tableNumber, String date, String from, String to, String locationId) {
-        Table table = tableRepository.getTableByIdAndLocationId(tableNumber, locationId);
-        System.out.println(tableNumber);
-        System.out.println(table);
-        if (table == null) {
-            throw new NotFoundException("Table not found");
-        }
-
-        Map<String, List<String>> booked = table.getBooked();
-        System.out.println(booked);
-
-        if (booked != null && booked.containsKey(date) && booked.get(date).contains(from + "-" + to)) {
-            throw new ConflictException("Reservation Already at that time and date");
-        }
-
-
-        return true;
-
-    }
-
-    private boolean waiterAvailableOnDateAndTime(String waiterId, String date, String from, String to) {
-        Waiter waiter = waiterRepository.getWaiterById(waiterId);
-        if (waiter == null) {
-            throw new NotFoundException("Waiter Not found");
-        }
-
-        Map<String, List<String>> booked = waiter.getBooked();
-
-        if (booked != null && booked.containsKey(date) && booked.get(date).contains(from + "-" + to)) {
-            throw new ConflictException("Reservation at that date and time already exixts");
-        }
-
-
-        return true;
-    }
 }
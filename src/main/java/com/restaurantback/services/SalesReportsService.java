@@ -3,12 +3,11 @@ package com.restaurantback.services;
 import com.restaurantback.dto.report.SalesPerformanceDTO;
 import com.restaurantback.models.LocationReport;
 import com.restaurantback.utils.RoundOffDecPlaces;
+import com.restaurantback.utils.TimeOfDay;
 import software.amazon.awssdk.enhanced.dynamodb.*;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -26,14 +25,12 @@ public class SalesReportsService {
         List<LocationReport> currentPeriodReports = getLocationReportsForDateRangeUsingScan(startDate, endDate);
 
         System.out.println("Calculate the previous period dates (same length as current period)");
-        LocalDate start = LocalDate.parse(startDate);
-        LocalDate end = LocalDate.parse(endDate);
-        int periodLength = (int) ChronoUnit.DAYS.between(start, end) + 1;
+        int start = TimeOfDay.epochDay(startDate);
+        int end = TimeOfDay.epochDay(endDate);
+        int periodLength = end - start + 1;
 
-        LocalDate prevStart = start.minusDays(periodLength);
-        LocalDate prevEnd = end.minusDays(periodLength);
-        String prevStartDate = prevStart.toString();
-        String prevEndDate = prevEnd.toString();
+        String prevStartDate = TimeOfDay.formatDate(start - periodLength);
+        String prevEndDate = TimeOfDay.formatDate(end - periodLength);
 
         System.out.println("Fetch all location reports for the previous period");
         List<LocationReport> previousPeriodReports = getLocationReportsForDateRangeUsingScan(prevStartDate, prevEndDate);
@@ -150,13 +147,9 @@ public class SalesReportsService {
     private List<String> generateDateRange(String startDate, String endDate) {
         List<String> dates = new ArrayList<>();
 
-        LocalDate start = LocalDate.parse(startDate);
-        LocalDate end = LocalDate.parse(endDate);
-
-        LocalDate current = start;
-        while (!current.isAfter(end)) {
-            dates.add(current.toString());
-            current = current.plusDays(1);
+        int end = TimeOfDay.epochDay(endDate);
+        for (int day = TimeOfDay.epochDay(startDate); day <= end; day++) {
+            dates.add(TimeOfDay.formatDate(day));
         }
 
         return dates;
@@ -58,8 +58,8 @@ public class ServiceModule {
     @Singleton
     @Provides
     @Named("tableService")
-    TableService tableService(@Named("dynamoDbEnhancedClient") DynamoDbEnhancedClient dynamoDbEnhancedClient, @Named("locationService") LocationService locationService, @Named("tableRepository")TableRepository tableRepository){
-        return new TableService(dynamoDbEnhancedClient, locationService, tableRepository);
+    TableService tableService(@Named("dynamoDbEnhancedClient") DynamoDbEnhancedClient dynamoDbEnhancedClient, @Named("locationService") LocationService locationService, @Named("tableRepository")TableRepository tableRepository, @Named("tableAvailabilityIndex")TableAvailabilityIndex tableAvailabilityIndex, @Named("holdRepository")HoldRepository holdRepository){
+        return new TableService(dynamoDbEnhancedClient, locationService, tableRepository, tableAvailabilityIndex, holdRepository);
     }
 
     @Singleton
@@ -86,8 +86,8 @@ public class ServiceModule {
     @Singleton
     @Provides
     @Named("bookingService")
-    BookingService bookingService(@Named("bookingRepository") BookingRepository bookingRepository, @Named("tableService") TableService tableService, @Named("waiterService") WaiterService waiterService, @Named("locationService") LocationService locationService, @Named("employeeRepository")EmployeeRepository employeeRepository, @Named("dynamoDbEnhancedClient")DynamoDbEnhancedClient dynamoDbEnhancedClient){
-        return new BookingService(bookingRepository, tableService, waiterService, locationService, employeeRepository, dynamoDbEnhancedClient);
+    BookingService bookingService(@Named("bookingRepository") BookingRepository bookingRepository, @Named("reservationTransactions") ReservationTransactions reservationTransactions, @Named("tableService") TableService tableService, @Named("waiterService") WaiterService waiterService, @Named("locationService") LocationService locationService, @Named("employeeRepository")EmployeeRepository employeeRepository, @Named("dynamoDbEnhancedClient")DynamoDbEnhancedClient dynamoDbEnhancedClient){
+        return new BookingService(bookingRepository, reservationTransactions, tableService, waiterService, locationService, employeeRepository, dynamoDbEnhancedClient);
     }
 
     @Singleton
@@ -108,12 +108,11 @@ public class ServiceModule {
     @Provides
     @Named("reservationService")
     ReservationService reservationService(@Named("bookingRepository")BookingRepository bookingRepository,
+                                          @Named("reservationTransactions") ReservationTransactions reservationTransactions,
                                           @Named("employeeRepository") EmployeeRepository employeeRepository,
-                                          @Named("tableRepository") TableRepository tableRepository,
-                                          @Named("waiterRepository") WaiterRepository waiterRepository,
                                           @Named("locationService") LocationService locationService,
                                           @Named("userRepository") UserRepository userRepository){
-        return new ReservationService(bookingRepository, employeeRepository, waiterRepository, tableRepository, locationService, userRepository);
+        return new ReservationService(bookingRepository, reservationTransactions, employeeRepository, locationService, userRepository);
     }
 
     @Singleton
@@ -144,4 +143,10 @@ public class ServiceModule {
         return new EmailService(sesClient);
     }
 
+    @Singleton
+    @Provides
+    @Named("idempotencyService")
+    IdempotencyService idempotencyService(@Named("idempotencyRepository") IdempotencyRepository idempotencyRepository){
+        return new IdempotencyService(idempotencyRepository);
+    }
 }
@@ -4,14 +4,13 @@ import com.restaurantback.dto.report.SalesPerformanceDTO;
 import com.restaurantback.dto.report.StaffPerformanceDTO;
 import com.restaurantback.models.WaiterReport;
 import com.restaurantback.utils.RoundOffDecPlaces;
+import com.restaurantback.utils.TimeOfDay;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -31,14 +30,12 @@ public class StaffReportsService {
         List<WaiterReport> currentPeriodReports = getWaiterReportsForDateRangeUsingScan(reportFrom, reportTo);
 
         System.out.println("Staff performance processing...");
-        LocalDate start = LocalDate.parse(reportFrom);
-        LocalDate end = LocalDate.parse(reportTo);
-        int periodLength = (int) ChronoUnit.DAYS.between(start, end) + 1;
-
-        LocalDate prevStart = start.minusDays(periodLength);
-        LocalDate prevEnd = end.minusDays(periodLength);
-        String prevStartDate = prevStart.toString();
-        String prevEndDate = prevEnd.toString();
+        int start = TimeOfDay.epochDay(reportFrom);
+        int end = TimeOfDay.epochDay(reportTo);
+        int periodLength = end - start + 1;
+
+        String prevStartDate = TimeOfDay.formatDate(start - periodLength);
+        String prevEndDate = TimeOfDay.formatDate(end - periodLength);
 
         List<WaiterReport> previousPeriodReports = getWaiterReportsForDateRangeUsingScan(prevStartDate, prevEndDate);
         
@@ -2,14 +2,20 @@ package com.restaurantback.services;
 
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.restaurantback.dto.TableAvailableDTO;
-import com.restaurantback.dto.reservation.BookingDto;
+import com.restaurantback.dto.reservation.SlotAlternativeDTO;
+import com.restaurantback.dto.reservation.SlotHoldDTO;
 import com.restaurantback.exceptions.reservationException.ConflictException;
 import com.restaurantback.exceptions.reservationException.NotFoundException;
 import com.restaurantback.models.Location;
 import com.restaurantback.models.Table;
 import com.restaurantback.models.TimeSlot;
+import com.restaurantback.repository.HoldRepository;
+import com.restaurantback.repository.TableAvailabilityIndex;
 import com.restaurantback.repository.TableRepository;
-import com.restaurantback.utils.TableFilter;
+import com.restaurantback.utils.IntervalSchedule;
+import com.restaurantback.utils.TimeOfDay;
+import com.restaurantback.utils.SlotCatalog;
+import com.restaurantback.utils.AppLogger;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
@@ -17,33 +23,52 @@ import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import javax.validation.ValidationException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 public class TableService {
+    private static final AppLogger logger = AppLogger.getLogger(TableService.class);
+
+    private static final int ALTERNATIVE_DAYS = 3;
+
+    private static final int MAX_ALTERNATIVES_PER_KIND = 3;
+
+    private static final long HOLD_TTL_SECONDS = holdTtlSeconds();
+
+    private static final int MAX_ACTIVE_HOLDS = maxActiveHolds();
+
 
     private final DynamoDbEnhancedClient enhancedClient;
     private final String tableName;
     private final LocationService locationService;
     private final TableRepository tableRepository;
+    private final TableAvailabilityIndex availabilityIndex;
+    private final HoldRepository holdRepository;
 
-    public TableService(DynamoDbEnhancedClient dynamoDbEnhancedClient, LocationService locationService, TableRepository tableRepository) {
+    public TableService(DynamoDbEnhancedClient dynamoDbEnhancedClient, LocationService locationService, TableRepository tableRepository, TableAvailabilityIndex availabilityIndex, HoldRepository holdRepository) {
         this.enhancedClient = dynamoDbEnhancedClient;
         this.tableName = System.getenv("tablesTable");
         this.locationService = locationService;
         this.tableRepository = tableRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.holdRepository = holdRepository;
     }
 
     public List<TableAvailableDTO> getAvailableTables(String locationId, Date date, TimeSlot timeSlot, int guests) {
-        System.out.println(locationId + " " + date + " " + timeSlot + " " + guests);
-        List<Table> allTables = fetchTablesByLocation(locationId);
-        System.out.println(allTables);
-        if(allTables == null || allTables.isEmpty()){
+        logger.debug("Available tables at {} on {} {} for {} guests", locationId, date, timeSlot, guests);
+        String dateString = new SimpleDateFormat("yyyy-MM-dd").format(date);
+
+        // free slots come from the in-memory index; the tables are only scanned when it is cold or expired
+        TableAvailabilityIndex.Availability availability = availabilityIndex.availability(locationId, dateString, () -> fetchTablesByLocation(locationId));
+        if (availability.size() == 0) {
             return null;
         }
         String imageUrl = fetchImageUrlByLocation(locationId);
-        return feedData(allTables, date, imageUrl);
+        return feedData(locationId, availability, imageUrl);
     }
 
     private String fetchImageUrlByLocation(String locationId) {
@@ -51,32 +76,47 @@ public class TableService {
         return location.getImage();
     }
 
+    private static long holdTtlSeconds() {
+        String value = System.getenv("HOLD_TTL_SECONDS");
+        try {
+            return value == null ? 300 : Math.max(1, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 300;
+        }
+    }
+
+    private static int maxActiveHolds() {
+        String value = System.getenv("MAX_ACTIVE_HOLDS");
+        try {
+            return value == null ? 3 : Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return 3;
+        }
+    }
+
     private List<Table> fetchTablesByLocation(String locationId) {
         DynamoDbTable<Table> table = enhancedClient.table(tableName, TableSchema.fromBean(Table.class));
         List<Table> tables = new ArrayList<>();
         table.scan().items().forEach(tables::add);
 
-        System.out.println(tables);
+        logger.dump("tables", () -> tables);
 
         return tables.stream()
                 .filter(table1 -> locationId.equalsIgnoreCase(table1.getLocationId()))
                 .toList();
     }
 
-    private List<TableAvailableDTO> feedData(List<Table> tables, Date date, String imageUrl){
-        List<TableAvailableDTO> availableDTOS = new ArrayList<>();
-        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
+    private List<TableAvailableDTO> feedData(String locationId, TableAvailabilityIndex.Availability availability, String imageUrl){
+        List<TableAvailableDTO> availableDTOS = new ArrayList<>(availability.size());
+        String locationAddress = locationService.getLocationAddressByLocationId(locationId);
 
-        String dateString = formatter.format(date);
-        for(Table table : tables){
+        for(int i = 0; i < availability.size(); i++){
             TableAvailableDTO availableDTO = new TableAvailableDTO();
-            availableDTO.setLocationId(table.getLocationId());
-            availableDTO.setCapacity(Integer.parseInt(table.getCapacity()));
-            availableDTO.setTableNumber(table.getId());
-            availableDTO.setLocationAddress(locationService.getLocationAddressByLocationId(table.getLocationId()));
-            List<String> availableTime = TableFilter.getAvailableTimeSlot(table.getBooked().get(dateString), dateString);
-            System.out.println(availableTime);
-            availableDTO.setAvailableSlots(availableTime);
+            availableDTO.setLocationId(locationId);
+            availableDTO.setCapacity(availability.capacity(i));
+            availableDTO.setTableNumber(availability.tableId(i));
+            availableDTO.setLocationAddress(locationAddress);
+            availableDTO.setAvailableSlots(SlotCatalog.slotsOf(availability.free(i)));
             availableDTO.setImageUrl(imageUrl);
 
             availableDTOS.add(availableDTO);
@@ -86,117 +126,195 @@ public class TableService {
     }
 
 
-    private boolean isTimeSlotAvailable(List<String> existingSlots, String timeFrom, String timeTo) {
-        System.out.println("[isTimeSlotAvailable] Checking " + timeFrom + "-" + timeTo);
-
-        for (String slot : existingSlots) {
-            String[] times = slot.split("-");
-            System.out.println("[isTimeSlotAvailable] Comparing with: " + slot);
-
-            if (timeFrom.compareTo(times[1]) < 0 && timeTo.compareTo(times[0]) > 0) {
-                System.out.println("[isTimeSlotAvailable] Conflict detected");
-                return false;
-            }
-        }
-        System.out.println("[isTimeSlotAvailable] No conflicts");
-        return true;
-    }
-
     public void updateTimeSlotForTableWithIdAndLocationId(
             String tableId, String locationId, String date, String timeslot) {
 
-        System.out.println("[updateTimeSlot] Attempting update for table " + tableId);
+        logger.debug("[updateTimeSlot] Attempting update for table {}", tableId);
 
         try {
-            if (!isTimeSlotAvailable(
-                    tableRepository.getBookedTimeSlots(tableId, locationId).getOrDefault(date, List.of()),
-                    timeslot.split("-")[0],
-                    timeslot.split("-")[1]
-            )) {
-                System.out.println("[updateTimeSlot] Duplicate booking detected");
-                throw new ConflictException("Table already booked");
-            }
-
+            // the claim itself fails with ConflictException when the slot is taken
             tableRepository.updateTimeSlotForTableWithId(tableId, locationId, date, timeslot);
-            System.out.println("[updateTimeSlot] Successfully updated");
+            logger.debug("[updateTimeSlot] Successfully updated");
 
         } catch (Exception e) {
-            System.err.println("[updateTimeSlot] Error: " + e.getMessage());
+            logger.warn("[updateTimeSlot] Error: {}", e.getMessage());
             throw e;
         }
     }
 
     public boolean doesTableExist(String tableId, String locationId) {
-        System.out.println("[doesTableExist] Checking table " + tableId);
+        logger.debug("[doesTableExist] Checking table {}", tableId);
         return tableRepository.doesTableExist(tableId, locationId);
     }
 
     public Map<String, AttributeValue> getTableDataById(String tableId, String locationId) {
-        System.out.println("[getTableData] Fetching data for table " + tableId);
+        logger.debug("[getTableData] Fetching data for table {}", tableId);
         Map<String, AttributeValue> data = tableRepository.getTableDataById(tableId, locationId);
         if (data == null) {
-            System.out.println("[getTableData] Table not found");
+            logger.debug("[getTableData] Table not found");
             throw new NotFoundException("Table not found");
         }
         return data;
     }
 
     public void removeTimeSlot(String tableId, String locationId, String date, String timeSlot) {
-        System.out.println("[removeTimeSlot] Removing slot " + timeSlot + " from table " + tableId);
+        logger.debug("[removeTimeSlot] Removing slot {} from table {}", timeSlot, tableId);
         tableRepository.removeTimeSlotFromTable(tableId, locationId, date, timeSlot);
-        System.out.println("[removeTimeSlot] Successfully removed");
+        logger.debug("[removeTimeSlot] Successfully removed");
+    }
+
+    public boolean doesTableExistsWithIdAndLocationId(String tableId, String locationId) {
+        logger.debug("[doesTableExist] Checking table {}", tableId);
+        return tableRepository.doesTableExistsWithIdAndLocationId(tableId, locationId);
     }
 
-    public boolean isTableAvailableForBooking(BookingDto booking) {
-        System.out.println("[isTableAvailable] Checking booking: " + booking);
 
-        try {
-            if (!doesTableExistsWithIdAndLocationId(booking.getTableId(), booking.getLocationId())) {
-                System.out.println("[isTableAvailable] Table not found");
-                return false;
-            }
 
-            Map<String, List<String>> bookedTimeSlots = tableRepository.getBookedTimeSlots(
-                    booking.getTableId(),
-                    booking.getLocationId()
-            );
+    /**
+     * Tables to try, in order, for a booking without a chosen table: the smallest ones that seat the
+     * party and are free for the slot according to the availability index.
+     */
+    public List<String> getTableCandidates(String locationId, String date, String timeFrom, String timeTo, int guests) {
+        List<String> candidates = availabilityIndex.candidates(locationId, date, timeFrom + "-" + timeTo, guests, () -> fetchTablesByLocation(locationId));
+        logger.debug("[getTableCandidates] {} tables for {} guests at {}", candidates.size(), guests, locationId);
+        return candidates;
+    }
 
-            if (bookedTimeSlots.isEmpty() || !bookedTimeSlots.containsKey(booking.getDate())) {
-                System.out.println("[isTableAvailable] No bookings for this date");
-                return true;
+    /**
+     * Ranked suggestions for a slot that turned out to be taken: the same table at the nearest free
+     * slots, other tables that seat the party at the same slot (smallest first), then the same slot
+     * on each of the next ALTERNATIVE_DAYS days. Everything comes from the availability index, so no
+     * table is read; tableId may be null when no table was chosen.
+     */
+    public List<SlotAlternativeDTO> getAlternatives(String locationId, String date, String timeFrom, String timeTo, String tableId, int guests) {
+        String slot = timeFrom + "-" + timeTo;
+        int mask = SlotCatalog.overlapping(slot);
+        Supplier<List<Table>> loader = () -> fetchTablesByLocation(locationId);
+        List<SlotAlternativeDTO> alternatives = new ArrayList<>();
+
+        TableAvailabilityIndex.Availability availability = availabilityIndex.availability(locationId, date, loader);
+        List<Integer> bySize = fittingBySize(availability, guests);
+        for (int i = 0; i < availability.size(); i++) {
+            if (availability.tableId(i).equals(tableId)) {
+                for (String free : SlotCatalog.nearest(availability.free(i) & ~mask, TimeOfDay.parse(timeFrom), MAX_ALTERNATIVES_PER_KIND)) {
+                    alternatives.add(new SlotAlternativeDTO("SAME_TABLE", tableId, availability.capacity(i), date, free));
+                }
+            }
+        }
+        if (mask == 0) {
+            return alternatives;
+        }
+        int otherTables = 0;
+        for (int i : bySize) {
+            if (otherTables < MAX_ALTERNATIVES_PER_KIND && !availability.tableId(i).equals(tableId) && (availability.free(i) & mask) == mask) {
+                alternatives.add(new SlotAlternativeDTO("OTHER_TABLE", availability.tableId(i), availability.capacity(i), date, slot));
+                otherTables++;
             }
+        }
 
-            boolean available = isTimeSlotAvailable(
-                    bookedTimeSlots.get(booking.getDate()),
-                    booking.getTimeFrom(),
-                    booking.getTimeTo()
-            );
-            System.out.println("[isTableAvailable] Slot available: " + available);
-            return available;
+        int day = TimeOfDay.epochDay(date);
+        for (int d = 1; d <= ALTERNATIVE_DAYS; d++) {
+            String nextDate = TimeOfDay.formatDate(day + d);
+            TableAvailabilityIndex.Availability next = availabilityIndex.availability(locationId, nextDate, loader);
+            int chosen = -1;
+            for (int i : fittingBySize(next, guests)) {
+                if ((next.free(i) & mask) != mask) {
+                    continue;
+                }
+                if (next.tableId(i).equals(tableId)) {
+                    chosen = i;
+                    break;
+                }
+                if (chosen < 0) {
+                    chosen = i;
+                }
+            }
+            if (chosen >= 0) {
+                alternatives.add(new SlotAlternativeDTO("OTHER_DAY", next.tableId(chosen), next.capacity(chosen), nextDate, slot));
+            }
+        }
+        logger.debug("[getAlternatives] {} alternatives for {} on {} at {}", alternatives.size(), tableId, date, slot);
+        return alternatives;
+    }
 
-        } catch (Exception e) {
-            System.err.println("[isTableAvailable] Error: " + e.getMessage());
-            throw new ValidationException("Availability check failed");
+    // positions of the tables seating at least guests, smallest first
+    private static List<Integer> fittingBySize(TableAvailabilityIndex.Availability availability, int guests) {
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < availability.size(); i++) {
+            if (availability.capacity(i) >= guests) {
+                positions.add(i);
+            }
         }
+        positions.sort(Comparator.comparingInt(availability::capacity));
+        return positions;
     }
 
+    /**
+     * Puts a HOLD_TTL_SECONDS hold on the table slot for holder, so the slot shows as taken while
+     * they fill in the booking; their booking converts it by passing holdId. A holder may keep up to
+     * MAX_ACTIVE_HOLDS holds at a time. Returns the hold with its id and expiry.
+     */
+    public SlotHoldDTO holdTable(SlotHoldDTO hold, String holder) {
+        if (hold.getLocationId() == null || hold.getTableId() == null || hold.getDate() == null
+                || hold.getTimeFrom() == null || hold.getGuestsNumber() == null) {
+            throw new ValidationException("locationId, tableId, date, timeFrom and guestsNumber are required");
+        }
+        int[] range;
+        try {
+            if (hold.getTimeTo() == null && hold.getDurationMinutes() != null) {
+                hold.setTimeTo(IntervalSchedule.endOf(hold.getTimeFrom(), hold.getDurationMinutes()));
+            }
+            range = IntervalSchedule.parse(hold.getTimeFrom() + "-" + hold.getTimeTo());
+            if (range == null) {
+                throw new ValidationException("Invalid time range: " + hold.getTimeFrom() + "-" + hold.getTimeTo());
+            }
+            if (TimeOfDay.epochMinute(TimeOfDay.epochDay(hold.getDate()), range[0]) < TimeOfDay.nowEpochMinute()) {
+                throw new ValidationException("Cannot hold a past date/time");
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+        BookingService.validateTimeRange(range[0], range[1]);
 
+        if (!locationService.doesLocationExist(hold.getLocationId())) {
+            throw new NotFoundException("Location not found: " + hold.getLocationId());
+        }
+        if (!doesTableExistsWithIdAndLocationId(hold.getTableId(), hold.getLocationId())) {
+            throw new NotFoundException("Table not found");
+        }
+        verifyTableCanAccommodateGuestsWithIdAndLocationId(hold.getTableId(), hold.getLocationId(), hold.getGuestsNumber());
 
-    public boolean doesTableExistsWithIdAndLocationId(String tableId, String locationId) {
-        System.out.println("[doesTableExist] Checking table " + tableId);
-        return tableRepository.doesTableExistsWithIdAndLocationId(tableId, locationId);
+        hold.setHoldId(UUID.randomUUID().toString());
+        hold.setExpiresAt(System.currentTimeMillis() / 1000 + HOLD_TTL_SECONDS);
+        holdRepository.reserve(holder, hold.getHoldId(), hold.getExpiresAt(), MAX_ACTIVE_HOLDS);
+        try {
+            tableRepository.holdSlot(hold.getTableId(), hold.getLocationId(), hold.getDate(), IntervalSchedule.format(range[0], range[1]),
+                    hold.getHoldId(), holder, hold.getExpiresAt());
+        } catch (RuntimeException e) {
+            holdRepository.release(holder, hold.getHoldId());
+            throw e;
+        }
+        return hold;
     }
 
-
+    /**
+     * Stops counting the hold against holder once their booking has taken it over.
+     */
+    public void holdConverted(String holder, String holdId) {
+        try {
+            holdRepository.release(holder, holdId);
+        } catch (RuntimeException e) {
+            // the booking is made; the entry just keeps counting until it expires
+            logger.warn("Hold {} of {} was not released: {}", holdId, holder, e.getMessage());
+        }
+    }
 
     public void verifyTableCanAccommodateGuestsWithIdAndLocationId(String tableId, String locationId, String guests) {
         String tableCapacity = getNumberOfGuestsForTableWithIdAndLocationId(tableId, locationId);
         try{
-            System.out.printf("Before conversion = guestNumber: %s,capacity: %s .",guests,tableCapacity);
-
             int guestCount = Integer.parseInt(guests);
             int capacity = Integer.parseInt(tableCapacity);
-            System.out.printf("After conversion = guestNumber: %d,capacity: %d .",guestCount,capacity);
+            logger.debug("Table {} seats {}, {} guests requested", tableId, capacity, guestCount);
 
             if (guestCount <= capacity) {
             } else {
@@ -211,9 +329,7 @@ public class TableService {
 
     private String getNumberOfGuestsForTableWithIdAndLocationId(String tableId, String locationId){
         AttributeValue numberOfGuestsForTableWithIdAndLocationId = tableRepository.getNumberOfGuestsForTableWithIdAndLocationId(tableId, locationId);
-        System.out.printf("guestNumber: %s",numberOfGuestsForTableWithIdAndLocationId);
         if(numberOfGuestsForTableWithIdAndLocationId==null)throw new RuntimeException("The Table does not contain the capacity Attribute");
-        System.out.printf("getS: %s, getN: %s",numberOfGuestsForTableWithIdAndLocationId.getS(),numberOfGuestsForTableWithIdAndLocationId.getN());
         return numberOfGuestsForTableWithIdAndLocationId.getN();
     }
 }
@@ -1,17 +1,20 @@
 package com.restaurantback.services;
 
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.restaurantback.exceptions.reservationException.ConflictException;
 import com.restaurantback.exceptions.reservationException.NotFoundException;
 import com.restaurantback.repository.WaiterRepository;
+import com.restaurantback.utils.AppLogger;
+import com.restaurantback.utils.BookedSlots;
+import com.restaurantback.utils.IntervalSchedule;
+import com.restaurantback.utils.TimeOfDay;
 
 import javax.validation.ValidationException;
-import java.time.Duration;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class WaiterService {
+    private static final AppLogger logger = AppLogger.getLogger(WaiterService.class);
+
     WaiterRepository waiterRepository;
 
     public WaiterService(WaiterRepository waiterRepository) {
@@ -19,91 +22,66 @@ public class WaiterService {
     }
 
     public String getLeastBusyWaiter(String locationId, String date, String timeFrom, String timeTo) {
-        System.out.println("Finding least busy waiter for location: " + locationId);
+        logger.debug("Finding least busy waiter for location: {}", locationId);
 
         if (locationId == null || date == null || timeFrom == null || timeTo == null) {
             throw new IllegalArgumentException("All parameters are required");
         }
 
         List<Map<String, AttributeValue>> waiters = waiterRepository.getWaitersByLocation(locationId);
-        System.out.println(waiters);
+        logger.dump("waiters", () -> waiters);
 
         if (waiters.isEmpty()) {
             throw new ValidationException("No waiters available for the selected location");
         }
 
-        List<Map<String, AttributeValue>> eligibleWaiters = waiters.stream().filter(waiter -> isWaiterAvailable(waiter, timeFrom, timeTo, date)).collect(Collectors.toList());
-        System.out.println(eligibleWaiters);
-
-        if (eligibleWaiters.isEmpty()) {
-            throw new ValidationException("No eligible waiters available for the selected time slot");
-        }
-
-        try {
-            Map<String, Double> waiterScores = calculateWaiterScores(eligibleWaiters, date, timeFrom, timeTo);
-            System.out.println(waiterScores);
-
-            return waiterScores.entrySet().stream().min(Map.Entry.comparingByValue()).orElseThrow(() -> new ValidationException("No suitable waiter found")).getKey();
-        } catch (Exception e) {
-            System.err.println("Error calculating waiter scores: " + e.getMessage());
-            throw new ValidationException("Failed to find suitable waiter: " + e.getMessage());
+        // times are parsed once; each waiter's slots are read into a schedule once for both the
+        // availability check and the score
+        short from = TimeOfDay.parse(timeFrom);
+        short to = TimeOfDay.parse(timeTo);
+        Map<String, Double> waiterScores = new HashMap<>();
+        for (Map<String, AttributeValue> waiter : waiters) {
+            IntervalSchedule schedule = IntervalSchedule.of(getBookedTimeSlotsForDate(waiter, date));
+            if (isWaiterAvailable(waiter, schedule, from, to)) {
+                waiterScores.put(waiter.get("waiter_id").getS(), calculateClumsinessScore(schedule, from, to));
+            }
         }
-    }
+        logger.dump("waiterScores", () -> waiterScores);
 
-    private Map<String, Double> calculateWaiterScores(List<Map<String, AttributeValue>> waiters, String date, String timeFrom, String timeTo) {
-        Map<String, Double> scores = new HashMap<>();
-
-        for (Map<String, AttributeValue> waiter : waiters) {
-            String waiterId = waiter.get("waiter_id").getS();
-            List<String> bookedSlots = getBookedTimeSlotsForDate(waiter, date);
-            double score = calculateClumsinessScore(bookedSlots, timeFrom, timeTo);
-            scores.put(waiterId, score);
+        if (waiterScores.isEmpty()) {
+            throw new ValidationException("No eligible waiters available for the selected time slot");
         }
 
-        return scores;
+        return waiterScores.entrySet().stream().min(Map.Entry.comparingByValue()).orElseThrow(() -> new ValidationException("No suitable waiter found")).getKey();
     }
 
-    private boolean isWaiterAvailable(Map<String, AttributeValue> waiter, String timeFrom, String timeTo, String date) {
-        String shiftStart = waiter.get("shift_start").getS();
-        String shiftEnd = waiter.get("shift_end").getS();
+    private boolean isWaiterAvailable(Map<String, AttributeValue> waiter, IntervalSchedule schedule, short from, short to) {
+        short shiftStart = TimeOfDay.parse(waiter.get("shift_start").getS());
+        short shiftEnd = TimeOfDay.parse(waiter.get("shift_end").getS());
 
         // Check if within shift
-        boolean withinShift = timeFrom.compareTo(shiftStart) >= 0 && timeTo.compareTo(shiftEnd) <= 0;
+        boolean withinShift = from >= shiftStart && to <= shiftEnd;
 
         if (!withinShift) return false;
 
         // Now check if already booked
-        List<String> bookedSlots = getBookedTimeSlotsForDate(waiter, date); // You'll need to pass date here
-        for (String slot : bookedSlots) {
-            String[] parts = slot.split("-");
-            String bookedFrom = parts[0];
-            String bookedTo = parts[1];
-
-            // Check for overlap
-            if (timeFrom.compareTo(bookedTo) < 0 && timeTo.compareTo(bookedFrom) > 0) {
-                return false;
-            }
-        }
-
-        return true;
+        return !schedule.overlaps(from, to);
     }
 
     public void updateTimeSlotForWaiterWithIdAndLocationId(String waiterId, String locationId, String date, String timeslot) {
-        System.out.println("Updating time slot for waiter: " + waiterId);
+        logger.debug("Updating time slot for waiter: {}", waiterId);
 
         if (waiterId == null || locationId == null || date == null || timeslot == null) {
             throw new IllegalArgumentException("All parameters are required");
         }
 
-        if (!doesWaiterExistWithIdAndLocationId(waiterId,locationId)) {
-            throw new NotFoundException("Waiter not found");
-        }
-
         try {
             waiterRepository.updateTimeSlotForWaiterWithId(waiterId, locationId, date, timeslot);
-            System.out.println("Successfully updated time slot for waiter: " + waiterId);
+            logger.debug("Successfully updated time slot for waiter: {}", waiterId);
+        } catch (ConflictException | NotFoundException e) {
+            throw e;
         } catch (Exception e) {
-            System.err.println("Failed to update waiter time slot: " + e.getMessage());
+            logger.warn("Failed to update waiter time slot: {}", e.getMessage());
             throw new ValidationException("Failed to update waiter schedule: " + e.getMessage());
         }
     }
@@ -114,42 +92,19 @@ public class WaiterService {
             return new ArrayList<>();
         }
 
-        Map<String, AttributeValue> bookedTimeSlots = bookedTimeSlotsAttr.getM();
-        AttributeValue dateSlots = bookedTimeSlots.get(date);
-        if (dateSlots == null || dateSlots.getL() == null) {
-            return new ArrayList<>();
-        }
-
-        return dateSlots.getL().stream().map(AttributeValue::getS).collect(Collectors.toList());
+        return BookedSlots.slotsOf(bookedTimeSlotsAttr.getM().get(date));
     }
 
-    private double calculateClumsinessScore(List<String> bookedTimeSlots, String timeFrom, String timeTo) {
-        // Sort the booked time slots
-        bookedTimeSlots.sort(Comparator.naturalOrder());
-
-        // Find the last booking before the requested time slot
-        String lastBooking = bookedTimeSlots.stream().filter(slot -> slot.split("-")[1].compareTo(timeFrom) <= 0).reduce((first, second) -> second) // Get the last one
-                .orElse(null);
-
-        // Find the next booking after the requested time slot
-        String nextBooking = bookedTimeSlots.stream().filter(slot -> slot.split("-")[0].compareTo(timeTo) >= 0).findFirst().orElse(null);
-
-        // Calculate gaps
-        double gapBefore = (lastBooking != null) ? calculateTimeDifference(lastBooking.split("-")[1], timeFrom) : Double.MAX_VALUE; // No booking before, infinite gap
-
-        double gapAfter = (nextBooking != null) ? calculateTimeDifference(timeTo, nextBooking.split("-")[0]) : Double.MAX_VALUE; // No booking after, infinite gap
+    private double calculateClumsinessScore(IntervalSchedule schedule, short from, short to) {
+        // Gaps to the last booking before and the next booking after the requested slot
+        int lastEnd = schedule.endBefore(from);
+        int nextStart = schedule.startAfter(to);
+        double gapBefore = lastEnd >= 0 ? from - lastEnd : Double.MAX_VALUE; // No booking before, infinite gap
+        double gapAfter = nextStart >= 0 ? nextStart - to : Double.MAX_VALUE; // No booking after, infinite gap
 
         return gapBefore + gapAfter;
     }
 
-    private double calculateTimeDifference(String time1, String time2) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
-        LocalTime t1 = LocalTime.parse(time1, formatter);
-        LocalTime t2 = LocalTime.parse(time2, formatter);
-
-        return Duration.between(t1, t2).toMinutes();
-    }
-
     public void removeTimeSlot(String waiterId, String locationId, String date, String timeSlot) {
         waiterRepository.removeTimeSlotFromWaiter(waiterId,locationId,date,timeSlot);
     }
@@ -159,8 +114,22 @@ public class WaiterService {
     }
 
     public boolean isWaiterAvailableByIdAndLocationIdForDateAndTime(String waiterId,String locationId,String date,String timeFrom,String timeTo){
-        Map<String,AttributeValue> waiter = waiterRepository.getWaiterByIdAndLocationId(waiterId,locationId);
-        return isWaiterAvailable(waiter,timeFrom,timeTo,date);
+        return isWaiterAvailableForMove(waiterId, locationId, null, null, date, timeFrom, timeTo);
+    }
 
+    /**
+     * As isWaiterAvailableByIdAndLocationIdForDateAndTime for a booking moving away from movedSlot
+     * on movedDate: on the same date its own slot is left out of the schedule, so a move that
+     * overlaps where the booking is now does not count as a clash.
+     */
+    public boolean isWaiterAvailableForMove(String waiterId, String locationId, String movedDate, String movedSlot,
+                                            String date, String timeFrom, String timeTo) {
+        Map<String,AttributeValue> waiter = waiterRepository.getWaiterByIdAndLocationId(waiterId,locationId);
+        IntervalSchedule schedule = IntervalSchedule.of(getBookedTimeSlotsForDate(waiter, date));
+        int[] moved = date.equals(movedDate) ? IntervalSchedule.parse(movedSlot) : null;
+        if (moved != null) {
+            schedule.remove(moved[0], moved[1]);
+        }
+        return isWaiterAvailable(waiter, schedule, TimeOfDay.parse(timeFrom), TimeOfDay.parse(timeTo));
     }
 }
@@ -0,0 +1,79 @@
+package com.restaurantback.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Thin facade over SLF4J for the request path. Messages use placeholders or suppliers so nothing is
+ * built unless the level is enabled, and whole-item dumps (DynamoDB maps, DTO graphs) are sampled so
+ * debug logging in production stays cheap. Info and below go through the async appender in logback.xml;
+ * warnings and errors are written synchronously.
+ */
+public class AppLogger {
+
+    private static final long DUMP_SAMPLE_EVERY = sampleRate();
+
+    private final Logger logger;
+
+    private final AtomicLong dumpCounter = new AtomicLong();
+
+    private AppLogger(Logger logger) {
+        this.logger = logger;
+    }
+
+    public static AppLogger getLogger(Class<?> type) {
+        return new AppLogger(LoggerFactory.getLogger(type));
+    }
+
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    public void debug(String format, Object... args) {
+        logger.debug(format, args);
+    }
+
+    public void debug(Supplier<String> message) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(message.get());
+        }
+    }
+
+    public void info(String format, Object... args) {
+        logger.info(format, args);
+    }
+
+    public void warn(String format, Object... args) {
+        logger.warn(format, args);
+    }
+
+    public void error(String format, Object... args) {
+        logger.error(format, args);
+    }
+
+    /**
+     * Logs a verbose payload at debug level for one call in LOG_DUMP_SAMPLE_EVERY (default 100).
+     * The payload supplier is only invoked when the line is actually written.
+     */
+    public void dump(String label, Supplier<?> payload) {
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
+        if (dumpCounter.getAndIncrement() % DUMP_SAMPLE_EVERY != 0) {
+            return;
+        }
+        logger.debug("{}: {}", label, payload.get());
+    }
+
+    private static long sampleRate() {
+        String value = System.getenv("LOG_DUMP_SAMPLE_EVERY");
+        try {
+            return value == null ? 100 : Math.max(1, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 100;
+        }
+    }
+}
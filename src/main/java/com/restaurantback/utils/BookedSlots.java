@@ -0,0 +1,124 @@
+package com.restaurantback.utils;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the booked attribute of tables and waiters. Each date maps to a map keyed by
+ * slot ("HH:mm-HH:mm" -> true), so a slot is claimed or released by setting or removing its own
+ * document path. A slot may also map to a hold, which reads as booked only until it expires.
+ * Items written before the change hold a list (or string set) per date; those are still read
+ * here and rewritten into the map form as they are touched or migrated.
+ */
+public class BookedSlots {
+
+    private BookedSlots() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Slots booked for one date, in whichever form the date was stored.
+     */
+    public static List<String> slotsOf(AttributeValue dateValue) {
+        if (dateValue == null) {
+            return new ArrayList<>();
+        }
+        if (dateValue.getM() != null) {
+            long now = System.currentTimeMillis() / 1000;
+            List<String> slots = new ArrayList<>(dateValue.getM().size());
+            dateValue.getM().forEach((slot, value) -> {
+                if (isActive(value, now)) {
+                    slots.add(slot);
+                }
+            });
+            return slots;
+        }
+        if (dateValue.getSS() != null) {
+            return new ArrayList<>(dateValue.getSS());
+        }
+        List<String> slots = new ArrayList<>();
+        if (dateValue.getL() != null) {
+            for (AttributeValue slot : dateValue.getL()) {
+                slots.add(slot.getS());
+            }
+        }
+        return slots;
+    }
+
+    public static Map<String, List<String>> toMap(AttributeValue booked) {
+        Map<String, List<String>> slots = new HashMap<>();
+        if (booked == null || booked.getM() == null) {
+            return slots;
+        }
+        booked.getM().forEach((date, dateValue) -> slots.put(date, slotsOf(dateValue)));
+        return slots;
+    }
+
+    public static AttributeValue toSlotMap(Collection<String> slots) {
+        Map<String, AttributeValue> slotMap = new HashMap<>();
+        for (String slot : slots) {
+            slotMap.put(slot, new AttributeValue().withBOOL(true));
+        }
+        return new AttributeValue().withM(slotMap);
+    }
+
+    /**
+     * The busy entry of one date: every granule covered by the slots, mapped to the slot holding it.
+     */
+    public static AttributeValue granulesOf(Collection<String> slots) {
+        Map<String, AttributeValue> granules = new HashMap<>();
+        for (String slot : slots) {
+            for (String granule : IntervalSchedule.granules(slot)) {
+                granules.put(granule, new AttributeValue().withS(slot));
+            }
+        }
+        return new AttributeValue().withM(granules);
+    }
+
+    /**
+     * The whole busy map for a booked map, in any of its stored forms.
+     */
+    public static AttributeValue busyOf(AttributeValue booked) {
+        Map<String, AttributeValue> dates = new HashMap<>();
+        toMap(booked).forEach((date, slots) -> dates.put(date, granulesOf(slots)));
+        return new AttributeValue().withM(dates);
+    }
+
+    /**
+     * Whether a slot entry still blocks its slot: a booking (true) always does, a hold
+     * ({hold: id, expires: epochSeconds}) until it expires.
+     */
+    public static boolean isActive(AttributeValue slotValue, long nowSeconds) {
+        AttributeValue expires = slotValue.getM() == null ? null : slotValue.getM().get("expires");
+        return expires == null || Long.parseLong(expires.getN()) >= nowSeconds;
+    }
+
+    public static boolean isLegacy(AttributeValue dateValue) {
+        return dateValue != null && dateValue.getM() == null;
+    }
+
+    /**
+     * The booked map with every legacy date rewritten as a slot map, or null if nothing needs it.
+     */
+    public static AttributeValue migrated(AttributeValue booked) {
+        if (booked == null || booked.getM() == null) {
+            return null;
+        }
+        boolean changed = false;
+        Map<String, AttributeValue> dates = new HashMap<>();
+        for (Map.Entry<String, AttributeValue> entry : booked.getM().entrySet()) {
+            if (isLegacy(entry.getValue())) {
+                dates.put(entry.getKey(), toSlotMap(slotsOf(entry.getValue())));
+                changed = true;
+            } else {
+                dates.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return changed ? new AttributeValue().withM(dates) : null;
+    }
+}
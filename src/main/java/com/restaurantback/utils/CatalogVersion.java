@@ -0,0 +1,67 @@
+package com.restaurantback.utils;
+
+/**
+ * Content version of a read-mostly catalog (dishes, locations). Services report the hash of every
+ * full scan they make; the version is the hash itself, so containers holding the same data hand out
+ * the same ETag. Between scans the version is trusted for max-age seconds, which tracks how often
+ * the catalog has been seen to change.
+ */
+public class CatalogVersion {
+
+    private static final long MIN_MAX_AGE_SECONDS = 60;
+
+    private static final long MAX_MAX_AGE_SECONDS = 3600;
+
+    private final String name;
+
+    private boolean observed;
+    private int contentHash;
+    private long firstObservedAt;
+    private long lastChangedAt;
+    private long lastValidatedAt;
+    private long meanChangeIntervalMillis = -1;
+
+    public CatalogVersion(String name) {
+        this.name = name;
+    }
+
+    public synchronized void observe(int hash) {
+        long now = System.currentTimeMillis();
+        if (!observed) {
+            observed = true;
+            firstObservedAt = now;
+            lastChangedAt = now;
+        } else if (hash != contentHash) {
+            long interval = now - lastChangedAt;
+            meanChangeIntervalMillis = meanChangeIntervalMillis < 0
+                    ? interval
+                    : (meanChangeIntervalMillis * 3 + interval) / 4;
+            lastChangedAt = now;
+        }
+        contentHash = hash;
+        lastValidatedAt = now;
+    }
+
+    /**
+     * True when the last scan is recent enough that the version can be answered without rescanning.
+     */
+    public synchronized boolean isFresh() {
+        return observed && System.currentTimeMillis() - lastValidatedAt < maxAgeSeconds() * 1000;
+    }
+
+    public synchronized String tag() {
+        return observed ? name + "-" + Integer.toHexString(contentHash) : null;
+    }
+
+    // a tenth of the observed change interval, clamped; before any change is seen the catalog's age stands in for it
+    public synchronized long maxAgeSeconds() {
+        if (!observed) {
+            return MIN_MAX_AGE_SECONDS;
+        }
+        long interval = meanChangeIntervalMillis >= 0
+                ? meanChangeIntervalMillis
+                : System.currentTimeMillis() - firstObservedAt;
+        long seconds = interval / 10_000;
+        return Math.max(MIN_MAX_AGE_SECONDS, Math.min(MAX_MAX_AGE_SECONDS, seconds));
+    }
+}
@@ -0,0 +1,171 @@
+package com.restaurantback.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One day of bookings of a table or waiter as half-open minute-of-day intervals [from, to). Bookings
+ * of one resource never overlap, so the intervals are disjoint and a TreeMap keyed by start answers
+ * overlap and neighbour queries from the floor/ceiling entries in O(log n), and finds the next
+ * free gap by walking forward from there.
+ *
+ * Slots are persisted as "HH:mm-HH:mm" keys of the booked map, as before, so any start and duration
+ * can be stored. Claims are made atomic by also holding every GRANULE_MINUTES granule the slot
+ * covers (see granules), which is why bookings have to start and end on a granule boundary.
+ */
+public class IntervalSchedule {
+
+    public static final int GRANULE_MINUTES = 15;
+
+    private final TreeMap<Integer, Integer> intervals = new TreeMap<>();
+
+    /**
+     * Builds the schedule from booked "HH:mm-HH:mm" slots; slots that do not parse are skipped.
+     */
+    public static IntervalSchedule of(Collection<String> slots) {
+        IntervalSchedule schedule = new IntervalSchedule();
+        if (slots == null) {
+            return schedule;
+        }
+        for (String slot : slots) {
+            int[] range = parse(slot);
+            if (range != null) {
+                schedule.intervals.put(range[0], range[1]);
+            }
+        }
+        return schedule;
+    }
+
+    public boolean overlaps(int from, int to) {
+        Map.Entry<Integer, Integer> before = intervals.floorEntry(from);
+        if (before != null && before.getValue() > from) {
+            return true;
+        }
+        Integer nextStart = intervals.higherKey(from);
+        return nextStart != null && nextStart < to;
+    }
+
+    public boolean overlaps(String slot) {
+        int[] range = parse(slot);
+        return range != null && overlaps(range[0], range[1]);
+    }
+
+    /**
+     * Adds the interval; false (and nothing added) when it overlaps a booked one.
+     */
+    public boolean add(int from, int to) {
+        if (from >= to || overlaps(from, to)) {
+            return false;
+        }
+        intervals.put(from, to);
+        return true;
+    }
+
+    public boolean remove(int from, int to) {
+        return intervals.remove(from, to);
+    }
+
+    /**
+     * End of the last booking that finishes at or before the given minute, or -1.
+     */
+    public int endBefore(int minute) {
+        Map.Entry<Integer, Integer> entry = intervals.floorEntry(minute);
+        while (entry != null && entry.getValue() > minute) {
+            entry = intervals.lowerEntry(entry.getKey());
+        }
+        return entry == null ? -1 : entry.getValue();
+    }
+
+    /**
+     * Start of the first booking that begins at or after the given minute, or -1.
+     */
+    public int startAfter(int minute) {
+        Integer start = intervals.ceilingKey(minute);
+        return start == null ? -1 : start;
+    }
+
+    /**
+     * Earliest granule-aligned start at or after fromMinute where durationMinutes fit before the
+     * next booking and before the end of the day, or -1 if there is none. Walks the bookings from
+     * the one covering fromMinute onwards, so it costs one step per booking it has to skip.
+     */
+    public int nextFree(int fromMinute, int durationMinutes) {
+        int start = roundUp(fromMinute);
+        Map.Entry<Integer, Integer> covering = intervals.floorEntry(start);
+        if (covering != null && covering.getValue() > start) {
+            start = roundUp(covering.getValue());
+        }
+        for (Map.Entry<Integer, Integer> next = intervals.ceilingEntry(start);
+             next != null && next.getKey() < start + durationMinutes;
+             next = intervals.ceilingEntry(start)) {
+            start = roundUp(next.getValue());
+        }
+        return start + durationMinutes <= TimeOfDay.MINUTES_PER_DAY ? start : -1;
+    }
+
+    public int size() {
+        return intervals.size();
+    }
+
+    /**
+     * [from, to) in minutes of the day for "HH:mm-HH:mm", or null when the slot is malformed.
+     */
+    public static int[] parse(String slot) {
+        if (slot == null) {
+            return null;
+        }
+        int dash = slot.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            int from = TimeOfDay.parse(slot.substring(0, dash));
+            int to = TimeOfDay.parse(slot.substring(dash + 1));
+            return from < to ? new int[]{from, to} : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public static String format(int from, int to) {
+        return TimeOfDay.format(from) + "-" + TimeOfDay.format(to);
+    }
+
+    /**
+     * "HH:mm" end of a booking starting at timeFrom and lasting durationMinutes.
+     */
+    public static String endOf(String timeFrom, int durationMinutes) {
+        int end = TimeOfDay.parse(timeFrom) + durationMinutes;
+        if (durationMinutes <= 0 || end > TimeOfDay.MINUTES_PER_DAY - 1) {
+            throw new IllegalArgumentException("Invalid duration: " + durationMinutes + " minutes");
+        }
+        return TimeOfDay.format(end);
+    }
+
+    public static boolean isAligned(int minute) {
+        return minute % GRANULE_MINUTES == 0;
+    }
+
+    private static int roundUp(int minute) {
+        int remainder = minute % GRANULE_MINUTES;
+        return remainder == 0 ? minute : minute + GRANULE_MINUTES - remainder;
+    }
+
+    /**
+     * "HH:mm" keys of the granules a slot covers, used as the per-granule claim markers.
+     */
+    public static List<String> granules(String slot) {
+        int[] range = parse(slot);
+        List<String> granules = new ArrayList<>();
+        if (range == null) {
+            return granules;
+        }
+        for (int minute = range[0] - range[0] % GRANULE_MINUTES; minute < range[1]; minute += GRANULE_MINUTES) {
+            granules.add(TimeOfDay.format(minute));
+        }
+        return granules;
+    }
+}
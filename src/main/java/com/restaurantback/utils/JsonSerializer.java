@@ -0,0 +1,80 @@
+package com.restaurantback.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.restaurantback.dto.DishInfoDTO;
+import com.restaurantback.dto.DishResponseDTO;
+import com.restaurantback.dto.FeedbackDTO;
+import com.restaurantback.dto.PaginatedResponse;
+import com.restaurantback.dto.TableAvailableDTO;
+import com.restaurantback.dto.report.FeedbackUpdate;
+import com.restaurantback.dto.reservation.ReservationPageDTO;
+import com.restaurantback.models.Booking;
+import com.restaurantback.models.Dish;
+import com.restaurantback.models.Feedback;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared Jackson setup. One mapper with the Blackbird module registered, plus writers and readers
+ * for the hot payloads built once per container instead of being resolved on every call.
+ */
+public class JsonSerializer {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new BlackbirdModule());
+
+    public static final ObjectWriter RESERVATION_PAGE = MAPPER.writerFor(ReservationPageDTO.class);
+
+    public static final ObjectWriter TABLES = MAPPER.writerFor(new TypeReference<Map<String, List<TableAvailableDTO>>>() {
+    });
+
+    public static final ObjectWriter DISHES = MAPPER.writerFor(new TypeReference<Map<String, List<DishResponseDTO>>>() {
+    });
+
+    public static final ObjectWriter POPULAR_DISHES = MAPPER.writerFor(new TypeReference<Map<String, List<Dish>>>() {
+    });
+
+    public static final ObjectWriter SPECIALITY_DISHES = MAPPER.writerFor(new TypeReference<Map<String, DishInfoDTO>>() {
+    });
+
+    public static final ObjectWriter FEEDBACK_PAGE = MAPPER.writerFor(new TypeReference<PaginatedResponse<FeedbackDTO>>() {
+    });
+
+    public static final ObjectWriter BOOKING = MAPPER.writerFor(Booking.class);
+
+    public static final ObjectWriter FEEDBACK = MAPPER.writerFor(Feedback.class);
+
+    public static final ObjectWriter FEEDBACK_UPDATE = MAPPER.writerFor(FeedbackUpdate.class);
+
+    public static final ObjectReader BOOKING_READER = MAPPER.readerFor(Booking.class);
+
+    public static final ObjectReader FEEDBACK_READER = MAPPER.readerFor(Feedback.class);
+
+    public static final ObjectReader FEEDBACK_UPDATE_READER = MAPPER.readerFor(FeedbackUpdate.class);
+
+    private static final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private static final ObjectWriter writer = MAPPER.writer();
+
+    private JsonSerializer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    public static String write(Object value) throws JsonProcessingException {
+        return writer.writeValueAsString(value);
+    }
+
+    public static <T> T read(String json, Class<T> type) throws JsonProcessingException {
+        return readers.computeIfAbsent(type, MAPPER::readerFor).readValue(json);
+    }
+}
@@ -0,0 +1,73 @@
+package com.restaurantback.utils;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram: values below 64 are counted exactly,
+ * larger values land in one of 32 linear sub-buckets per power of two, which keeps the relative
+ * error of any reported percentile under about 3% with a fixed, small footprint.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_HALF = 1 << SUB_BUCKET_BITS;
+
+    // values are clamped to 2^40 microseconds (~12 days), far beyond any invocation
+    private static final int MAX_SHIFT = 40 - SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[(MAX_SHIFT << SUB_BUCKET_BITS) + 2 * SUB_BUCKET_HALF];
+
+    private long totalCount;
+
+    private long maxValue;
+
+    public synchronized void record(long value) {
+        long clamped = Math.max(0, Math.min(value, 1L << 40));
+        counts[indexOf(clamped)]++;
+        totalCount++;
+        maxValue = Math.max(maxValue, clamped);
+    }
+
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    public synchronized long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * Value at the given percentile (0-100), reported as the midpoint of its bucket.
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(midpointOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    public synchronized void reset() {
+        java.util.Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxValue = 0;
+    }
+
+    private static int indexOf(long value) {
+        int msb = 63 - Long.numberOfLeadingZeros(value | 1);
+        int shift = Math.max(0, msb - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >> shift);
+    }
+
+    private static long midpointOf(int index) {
+        int shift = index < 2 * SUB_BUCKET_HALF ? 0 : (index >> SUB_BUCKET_BITS) - 1;
+        long lower = (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+        return lower + ((1L << shift) >> 1);
+    }
+}
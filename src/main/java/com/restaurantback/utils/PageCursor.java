@@ -0,0 +1,69 @@
+package com.restaurantback.utils;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opaque page tokens for DynamoDB queries: a LastEvaluatedKey of string attributes as URL-safe
+ * base64 of its JSON. Attributes the caller already pins in the key condition (the partition key)
+ * are left out of the token and put back on decode, so a token cannot be replayed for another user.
+ */
+public class PageCursor {
+
+    private static final TypeReference<Map<String, String>> KEY_TYPE = new TypeReference<>() {
+    };
+
+    private PageCursor() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Token for the key, or null when the query has no further page.
+     */
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey, String pinnedAttribute) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+        Map<String, String> values = new HashMap<>();
+        lastEvaluatedKey.forEach((name, value) -> {
+            if (!name.equals(pinnedAttribute)) {
+                values.put(name, value.getS());
+            }
+        });
+        try {
+            byte[] json = JsonSerializer.mapper().writeValueAsBytes(values);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not encode page cursor", e);
+        }
+    }
+
+    /**
+     * ExclusiveStartKey for the token with the pinned attribute set to pinnedValue, or null for a
+     * blank token; IllegalArgumentException for a token that was not produced by encode.
+     */
+    public static Map<String, AttributeValue> decode(String token, String pinnedAttribute, String pinnedValue) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        Map<String, String> values;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token.getBytes(StandardCharsets.US_ASCII));
+            values = JsonSerializer.mapper().readValue(json, KEY_TYPE);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (values == null || values.isEmpty() || values.containsKey(pinnedAttribute) || values.containsValue(null)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        Map<String, AttributeValue> key = new HashMap<>();
+        values.forEach((name, value) -> key.put(name, new AttributeValue().withS(value)));
+        key.put(pinnedAttribute, new AttributeValue().withS(pinnedValue));
+        return key;
+    }
+}
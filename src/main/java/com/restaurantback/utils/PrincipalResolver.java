@@ -0,0 +1,158 @@
+package com.restaurantback.utils;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.restaurantback.dto.Principal;
+import com.restaurantback.exceptions.reservationException.UnauthorizedException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resolves the caller's {@link Principal} from the bearer token once per request and keeps recently
+ * seen tokens in a small LRU keyed by the token's SHA-256, so warm containers skip decoding for
+ * repeat callers.
+ */
+public class PrincipalResolver {
+
+    private static final AppLogger logger = AppLogger.getLogger(PrincipalResolver.class);
+
+    public static final String PRINCIPAL_KEY = "principal";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final String AUTH_HEADER = "Authorization";
+
+    private static final int CACHE_SIZE = 512;
+
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {
+    };
+
+    private static final Map<String, Principal> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Principal> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private PrincipalResolver() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Resolves and attaches the principal when the request carries a bearer token. Requests without
+     * one, or with a malformed one, are left untouched so public routes keep working and
+     * authenticated routes still fail in their handler with a 401.
+     */
+    public static void attach(APIGatewayProxyRequestEvent request) {
+        String token = bearerToken(request);
+        if (token == null) {
+            return;
+        }
+        try {
+            attach(request, fromToken(token));
+        } catch (UnauthorizedException e) {
+            // left for the handler to report
+        }
+    }
+
+    public static Principal require(APIGatewayProxyRequestEvent request) {
+        Principal attached = attached(request);
+        if (attached != null) {
+            return attached;
+        }
+
+        if (request == null || request.getHeaders() == null) {
+            throw new UnauthorizedException("Missing request headers");
+        }
+        String token = bearerToken(request);
+        if (token == null) {
+            throw new UnauthorizedException("Missing or invalid Authorization header");
+        }
+
+        Principal principal = fromToken(token);
+        attach(request, principal);
+        return principal;
+    }
+
+    public static Principal fromToken(String token) {
+        String key = hash(token);
+        long now = System.currentTimeMillis() / 1000;
+
+        synchronized (cache) {
+            Principal cached = cache.get(key);
+            if (cached != null && cached.getExpiresAt() > now) {
+                return cached;
+            }
+            if (cached != null) {
+                cache.remove(key);
+            }
+        }
+
+        Principal principal = new Principal(decodeClaims(token));
+        synchronized (cache) {
+            cache.put(key, principal);
+        }
+        return principal;
+    }
+
+    private static Principal attached(APIGatewayProxyRequestEvent request) {
+        if (request == null || request.getRequestContext() == null || request.getRequestContext().getAuthorizer() == null) {
+            return null;
+        }
+        Object principal = request.getRequestContext().getAuthorizer().get(PRINCIPAL_KEY);
+        return principal instanceof Principal ? (Principal) principal : null;
+    }
+
+    private static void attach(APIGatewayProxyRequestEvent request, Principal principal) {
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = request.getRequestContext();
+        if (requestContext == null) {
+            requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+            request.setRequestContext(requestContext);
+        }
+        Map<String, Object> authorizer = requestContext.getAuthorizer() == null
+                ? new HashMap<>()
+                : new HashMap<>(requestContext.getAuthorizer());
+        authorizer.put(PRINCIPAL_KEY, principal);
+        requestContext.setAuthorizer(authorizer);
+    }
+
+    private static String bearerToken(APIGatewayProxyRequestEvent request) {
+        if (request == null || request.getHeaders() == null) {
+            return null;
+        }
+        String authHeader = request.getHeaders().get(AUTH_HEADER);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        return authHeader.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    private static Map<String, Object> decodeClaims(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length < 2) {
+            throw new UnauthorizedException("Invalid token structure");
+        }
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+            return JsonSerializer.mapper().readValue(payload, CLAIMS_TYPE);
+        } catch (Exception e) {
+            logger.debug("Token decode error: {}", e.getMessage());
+            throw new UnauthorizedException("Invalid token format");
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
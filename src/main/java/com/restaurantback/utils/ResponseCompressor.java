@@ -0,0 +1,136 @@
+package com.restaurantback.utils;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses response bodies with the best encoding the client accepts (gzip, then deflate).
+ * Bodies below the threshold are left alone; compressed bodies are returned base64-encoded, as
+ * API Gateway expects for binary payloads.
+ */
+public class ResponseCompressor {
+
+    private static final int MIN_SIZE_BYTES = 1024;
+
+    private static final String GZIP = "gzip";
+
+    private static final String DEFLATE = "deflate";
+
+    private ResponseCompressor() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static APIGatewayProxyResponseEvent compress(APIGatewayProxyRequestEvent request, APIGatewayProxyResponseEvent response) {
+        String body = response.getBody();
+        if (body == null || Boolean.TRUE.equals(response.getIsBase64Encoded()) || hasHeader(response.getHeaders(), "Content-Encoding")) {
+            return response;
+        }
+
+        String encoding = negotiate(header(request.getHeaders(), "Accept-Encoding"));
+        if (encoding == null) {
+            return response;
+        }
+
+        byte[] raw = body.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < MIN_SIZE_BYTES) {
+            return response;
+        }
+
+        byte[] compressed = encode(raw, encoding);
+        if (compressed.length >= raw.length) {
+            return response;
+        }
+
+        Map<String, String> headers = response.getHeaders() == null ? new HashMap<>() : new HashMap<>(response.getHeaders());
+        headers.put("Content-Encoding", encoding);
+        headers.put("Vary", "Accept-Encoding");
+
+        return response
+                .withBody(Base64.getEncoder().encodeToString(compressed))
+                .withIsBase64Encoded(true)
+                .withHeaders(headers);
+    }
+
+    // picks gzip or deflate by q-value, gzip winning ties; null when neither is acceptable
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+
+        double gzip = -1;
+        double deflate = -1;
+        double wildcard = -1;
+
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case GZIP, "x-gzip" -> gzip = Math.max(gzip, q);
+                case DEFLATE -> deflate = Math.max(deflate, q);
+                case "*" -> wildcard = q;
+                default -> {
+                }
+            }
+        }
+
+        if (gzip < 0) gzip = wildcard;
+        if (deflate < 0) deflate = wildcard;
+
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    private static byte[] encode(byte[] raw, String encoding) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(raw.length / 4);
+        try (OutputStream out = GZIP.equals(encoding) ? new GZIPOutputStream(buffer) : new DeflaterOutputStream(buffer)) {
+            out.write(raw);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compress response body", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static boolean hasHeader(Map<String, String> headers, String name) {
+        return header(headers, name) != null;
+    }
+
+    private static String header(Map<String, String> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        String value = headers.get(name);
+        if (value != null) {
+            return value;
+        }
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
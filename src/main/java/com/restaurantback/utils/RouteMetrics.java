@@ -0,0 +1,114 @@
+package com.restaurantback.utils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-route latency histograms, split by status class and cold/warm start. Every series recorded
+ * during an invocation is written to stdout as a CloudWatch Embedded Metric Format line when the
+ * invocation ends, so the metrics ride along with the function's logs instead of costing a
+ * PutMetricData call, and nothing is left behind when the container is frozen or reaped.
+ */
+public class RouteMetrics {
+
+    private static final String NAMESPACE = "RestaurantBackend";
+
+    private static final List<List<String>> DIMENSIONS = List.of(List.of("Route", "StatusClass", "Start"));
+
+    private static final List<Map<String, String>> METRICS = List.of(
+            Map.of("Name", "LatencyP50", "Unit", "Milliseconds"),
+            Map.of("Name", "LatencyP90", "Unit", "Milliseconds"),
+            Map.of("Name", "LatencyP99", "Unit", "Milliseconds"),
+            Map.of("Name", "LatencyMax", "Unit", "Milliseconds"),
+            Map.of("Name", "RequestCount", "Unit", "Count")
+    );
+
+    private final Map<Series, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public void record(String route, Integer statusCode, boolean coldStart, long elapsedNanos) {
+        Series series = new Series(route, statusClass(statusCode), coldStart ? "cold" : "warm");
+        LatencyHistogram histogram = histograms.computeIfAbsent(series, key -> new LatencyHistogram());
+        synchronized (histogram) {
+            histogram.record(elapsedNanos / 1_000);
+        }
+    }
+
+    /**
+     * Called at the end of every invocation; emits and resets every series that has recorded
+     * anything since the last flush. CloudWatch aggregates the lines into percentiles per period.
+     */
+    public void flush() {
+        long now = System.currentTimeMillis();
+        histograms.forEach((series, histogram) -> {
+            synchronized (histogram) {
+                if (histogram.getTotalCount() == 0) {
+                    return;
+                }
+                System.out.println(toEmf(series, histogram, now));
+                histogram.reset();
+            }
+        });
+    }
+
+    private static String toEmf(Series series, LatencyHistogram histogram, long timestamp) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("Timestamp", timestamp);
+        metadata.put("CloudWatchMetrics", List.of(Map.of(
+                "Namespace", NAMESPACE,
+                "Dimensions", DIMENSIONS,
+                "Metrics", METRICS
+        )));
+
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("_aws", metadata);
+        line.put("Route", series.route);
+        line.put("StatusClass", series.statusClass);
+        line.put("Start", series.start);
+        line.put("LatencyP50", millis(histogram.getValueAtPercentile(50)));
+        line.put("LatencyP90", millis(histogram.getValueAtPercentile(90)));
+        line.put("LatencyP99", millis(histogram.getValueAtPercentile(99)));
+        line.put("LatencyMax", millis(histogram.getMaxValue()));
+        line.put("RequestCount", histogram.getTotalCount());
+
+        try {
+            return JsonSerializer.write(line);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize metrics", e);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private static String statusClass(Integer statusCode) {
+        return statusCode == null ? "5xx" : (statusCode / 100) + "xx";
+    }
+
+    private static class Series {
+        private final String route;
+        private final String statusClass;
+        private final String start;
+
+        private Series(String route, String statusClass, String start) {
+            this.route = route;
+            this.statusClass = statusClass;
+            this.start = start;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Series)) return false;
+            Series other = (Series) o;
+            return route.equals(other.route) && statusClass.equals(other.statusClass) && start.equals(other.start);
+        }
+
+        @Override
+        public int hashCode() {
+            return (route.hashCode() * 31 + statusClass.hashCode()) * 31 + start.hashCode();
+        }
+    }
+}
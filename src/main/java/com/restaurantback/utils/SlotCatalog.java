@@ -0,0 +1,137 @@
+package com.restaurantback.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The fixed time slots a table can be booked for. Slot i is bit i of an availability mask, so a day
+ * of one table fits in an int and set operations over slots are plain bitwise arithmetic.
+ */
+public class SlotCatalog {
+
+    private static final String[] SLOTS = {
+            "10:30-12:00",
+            "12:15-13:45",
+            "14:00-15:30",
+            "15:45-17:15",
+            "17:30-19:00",
+            "19:15-20:45",
+            "21:00-22:30"
+    };
+
+    public static final int ALL = (1 << SLOTS.length) - 1;
+
+    private static final int[] START_MINUTES = new int[SLOTS.length];
+    private static final int[] END_MINUTES = new int[SLOTS.length];
+
+    static {
+        for (int i = 0; i < SLOTS.length; i++) {
+            START_MINUTES[i] = TimeOfDay.parse(SLOTS[i].substring(0, 5));
+            END_MINUTES[i] = TimeOfDay.parse(SLOTS[i].substring(6));
+        }
+    }
+
+    private SlotCatalog() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Minute of the day the first catalog slot starts; bookings of any length must fit between
+     * opensAt and closesAt.
+     */
+    public static int opensAt() {
+        return START_MINUTES[0];
+    }
+
+    public static int closesAt() {
+        return END_MINUTES[SLOTS.length - 1];
+    }
+
+    public static int size() {
+        return SLOTS.length;
+    }
+
+    /**
+     * Index of the slot in the catalog, or -1 for a slot that is not one of the fixed ones.
+     */
+    public static int indexOf(String slot) {
+        for (int i = 0; i < SLOTS.length; i++) {
+            if (SLOTS[i].equals(slot)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Mask of the catalog slots that overlap the given "HH:mm-HH:mm" range; an exact catalog slot
+     * maps to its own bit.
+     */
+    public static int overlapping(String slot) {
+        int index = indexOf(slot);
+        if (index >= 0) {
+            return 1 << index;
+        }
+        int[] range = IntervalSchedule.parse(slot);
+        if (range == null) {
+            return 0;
+        }
+        int from = range[0];
+        int to = range[1];
+        int mask = 0;
+        for (int i = 0; i < SLOTS.length; i++) {
+            if (from < END_MINUTES[i] && to > START_MINUTES[i]) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Slots that can still be booked on the date: all of them, except for today where slots that have
+     * already started (Asia/Kolkata time) are left out.
+     */
+    public static int bookable(String date) {
+        if (TimeOfDay.epochDay(date) != TimeOfDay.today()) {
+            return ALL;
+        }
+        int minute = TimeOfDay.now();
+        int mask = 0;
+        for (int i = 0; i < SLOTS.length; i++) {
+            if (START_MINUTES[i] >= minute) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Up to limit slots of the mask, those starting closest to the given minute of the day first.
+     */
+    public static List<String> nearest(int mask, int minute, int limit) {
+        List<String> slots = new ArrayList<>(limit);
+        int remaining = mask;
+        while (remaining != 0 && slots.size() < limit) {
+            int best = -1;
+            for (int i = 0; i < SLOTS.length; i++) {
+                if ((remaining & (1 << i)) != 0
+                        && (best < 0 || Math.abs(START_MINUTES[i] - minute) < Math.abs(START_MINUTES[best] - minute))) {
+                    best = i;
+                }
+            }
+            slots.add(SLOTS[best]);
+            remaining &= ~(1 << best);
+        }
+        return slots;
+    }
+
+    public static List<String> slotsOf(int mask) {
+        List<String> slots = new ArrayList<>(Integer.bitCount(mask));
+        for (int i = 0; i < SLOTS.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                slots.add(SLOTS[i]);
+            }
+        }
+        return slots;
+    }
+}
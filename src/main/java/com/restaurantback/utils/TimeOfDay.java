@@ -0,0 +1,130 @@
+package com.restaurantback.utils;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Primitive time model for the scheduling and reporting code: a time is a short minute of the day,
+ * a date an int epoch day, and an instant on the restaurant clock a long epoch minute. Strings
+ * ("HH:mm", "yyyy-MM-dd") are converted with plain char arithmetic only where values enter or leave
+ * through JSON or DynamoDB, so loops over bookings compare numbers instead of re-parsing.
+ */
+public class TimeOfDay {
+
+    public static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private TimeOfDay() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Minute of the day for "HH:mm" or "HH:mm:ss" (seconds are dropped); IllegalArgumentException
+     * for anything else.
+     */
+    public static short parse(String time) {
+        if (time == null || (time.length() != 5 && time.length() != 8) || time.charAt(2) != ':'
+                || (time.length() == 8 && time.charAt(5) != ':')) {
+            throw invalidTime(time);
+        }
+        int hour = twoDigits(time, 0);
+        int minute = twoDigits(time, 3);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || (time.length() == 8 && (twoDigits(time, 6) < 0 || twoDigits(time, 6) > 59))) {
+            throw invalidTime(time);
+        }
+        return (short) (hour * 60 + minute);
+    }
+
+    public static String format(int minuteOfDay) {
+        char[] chars = {
+                (char) ('0' + minuteOfDay / 600), (char) ('0' + minuteOfDay / 60 % 10), ':',
+                (char) ('0' + minuteOfDay % 60 / 10), (char) ('0' + minuteOfDay % 10)
+        };
+        return new String(chars);
+    }
+
+    /**
+     * Epoch day for "yyyy-MM-dd"; IllegalArgumentException if the date is malformed or does not exist.
+     */
+    public static int epochDay(String date) {
+        if (date == null || date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            throw invalidDate(date);
+        }
+        int century = twoDigits(date, 0);
+        int yearOfCentury = twoDigits(date, 2);
+        int year = century * 100 + yearOfCentury;
+        int month = twoDigits(date, 5);
+        int day = twoDigits(date, 8);
+        if (century < 0 || yearOfCentury < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw invalidDate(date);
+        }
+        return (int) daysFromCivil(year, month, day);
+    }
+
+    public static String formatDate(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    public static long epochMinute(int epochDay, int minuteOfDay) {
+        return (long) epochDay * MINUTES_PER_DAY + minuteOfDay;
+    }
+
+    /**
+     * Epoch minute of a stored booking date and time.
+     */
+    public static long epochMinute(String date, String time) {
+        return epochMinute(epochDay(date), parse(time));
+    }
+
+    public static int today() {
+        return (int) LocalDate.now(ZONE).toEpochDay();
+    }
+
+    public static long nowEpochMinute() {
+        ZonedDateTime now = ZonedDateTime.now(ZONE);
+        return epochMinute((int) now.toLocalDate().toEpochDay(), now.getHour() * 60 + now.getMinute());
+    }
+
+    public static short now() {
+        return (short) (nowEpochMinute() % MINUTES_PER_DAY);
+    }
+
+    // days since 1970-01-01 in the proleptic Gregorian calendar, as LocalDate#toEpochDay computes it
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (long) era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    // two decimal digits at the offset, or -1 if either is not a digit
+    private static int twoDigits(String value, int offset) {
+        int tens = value.charAt(offset) - '0';
+        int units = value.charAt(offset + 1) - '0';
+        if (tens < 0 || tens > 9 || units < 0 || units > 9) {
+            return -1;
+        }
+        return tens * 10 + units;
+    }
+
+    private static IllegalArgumentException invalidTime(String time) {
+        return new IllegalArgumentException("Invalid time, expected HH:mm: " + time);
+    }
+
+    private static IllegalArgumentException invalidDate(String date) {
+        return new IllegalArgumentException("Invalid date, expected yyyy-MM-dd: " + date);
+    }
+}
@@ -0,0 +1,42 @@
+package com.restaurantback.utils;
+
+/**
+ * Classic token bucket: holds up to capacity tokens and refills continuously at refillPerSecond.
+ * A request of a given cost is admitted when that many tokens are available.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+
+    private final double refillPerSecond;
+
+    private double tokens;
+
+    private long lastRefillNanos;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes cost tokens and returns 0, or leaves the bucket untouched and returns how many
+     * milliseconds the caller would have to wait for enough tokens.
+     */
+    public synchronized long tryAcquire(double cost) {
+        refill();
+        if (tokens >= cost) {
+            tokens -= cost;
+            return 0;
+        }
+        return (long) Math.ceil((cost - tokens) / refillPerSecond * 1000);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * refillPerSecond);
+        lastRefillNanos = now;
+    }
+}
@@ -25,7 +25,7 @@ public class UtilsModule {
     @Named("cors")
     Map<String, String> provideCorsHeaders() {
         return Map.of(
-                "Access-Control-Allow-Headers", "Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token, X-Access-Token",
+                "Access-Control-Allow-Headers", "Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token, X-Access-Token,Idempotency-Key",
                 "Access-Control-Allow-Origin", "*",
                 "Access-Control-Allow-Methods", "*",
                 "Accept-Version", "*"
@@ -36,7 +36,14 @@ public class UtilsModule {
     @Provides
     @Named("objectMapper")
     ObjectMapper objectMapper(){
-        return new ObjectMapper();
+        return JsonSerializer.mapper();
+    }
+
+    @Singleton
+    @Provides
+    @Named("routeMetrics")
+    RouteMetrics provideRouteMetrics() {
+        return new RouteMetrics();
     }
 
     @Singleton
@@ -0,0 +1,110 @@
+package com.restaurantback.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalScheduleTest {
+
+    private static final int NOON = 12 * 60;
+
+    @Test
+    void overlapsOnlyWhenIntervalsShareAMinute() {
+        IntervalSchedule schedule = IntervalSchedule.of(List.of("12:00-13:00", "14:00-15:30"));
+
+        assertTrue(schedule.overlaps(NOON + 30, NOON + 90));
+        assertTrue(schedule.overlaps(NOON - 30, NOON + 1));
+        assertTrue(schedule.overlaps(NOON + 90, 16 * 60));
+        assertTrue(schedule.overlaps(11 * 60, 16 * 60));
+        assertTrue(schedule.overlaps("12:15-12:45"));
+
+        // half-open: touching ends are not an overlap
+        assertFalse(schedule.overlaps(11 * 60, NOON));
+        assertFalse(schedule.overlaps(13 * 60, 14 * 60));
+        assertFalse(schedule.overlaps(15 * 60 + 30, 17 * 60));
+        assertFalse(schedule.overlaps("bad"));
+    }
+
+    @Test
+    void ofSkipsMalformedSlots() {
+        IntervalSchedule schedule = IntervalSchedule.of(List.of("12:00-13:00", "13:00-12:00", "noon", "25:00-26:00"));
+
+        assertEquals(1, schedule.size());
+        assertEquals(0, IntervalSchedule.of(null).size());
+    }
+
+    @Test
+    void addRejectsOverlapsAndEmptyIntervals() {
+        IntervalSchedule schedule = new IntervalSchedule();
+
+        assertTrue(schedule.add(NOON, NOON + 60));
+        assertFalse(schedule.add(NOON + 30, NOON + 90));
+        assertFalse(schedule.add(NOON + 90, NOON + 90));
+        assertTrue(schedule.add(NOON + 60, NOON + 90));
+        assertEquals(2, schedule.size());
+
+        assertTrue(schedule.remove(NOON, NOON + 60));
+        assertFalse(schedule.remove(NOON, NOON + 60));
+        assertTrue(schedule.add(NOON + 15, NOON + 45));
+    }
+
+    @Test
+    void neighboursOfAMinute() {
+        IntervalSchedule schedule = IntervalSchedule.of(List.of("10:30-12:00", "13:00-14:00"));
+
+        assertEquals(NOON, schedule.endBefore(NOON + 30));
+        assertEquals(NOON, schedule.endBefore(13 * 60 + 30));
+        assertEquals(-1, schedule.endBefore(11 * 60));
+        assertEquals(13 * 60, schedule.startAfter(NOON));
+        assertEquals(13 * 60, schedule.startAfter(13 * 60));
+        assertEquals(-1, schedule.startAfter(13 * 60 + 1));
+    }
+
+    @Test
+    void nextFreeFindsTheFirstAlignedGapThatFits() {
+        IntervalSchedule schedule = IntervalSchedule.of(List.of("12:00-13:00", "13:30-14:00", "14:40-16:00"));
+
+        assertEquals(11 * 60, schedule.nextFree(11 * 60, 60));
+        // 11:30-12:30 would run into the 12:00 booking
+        assertEquals(16 * 60, schedule.nextFree(11 * 60 + 30, 60));
+        // inside a booking the search starts at its end
+        assertEquals(13 * 60, schedule.nextFree(NOON + 10, 30));
+        // 14:00-14:40 is a gap, but a 45-minute booking does not fit before 14:40
+        assertEquals(14 * 60, schedule.nextFree(13 * 60 + 30, 30));
+        assertEquals(16 * 60, schedule.nextFree(13 * 60 + 30, 45));
+        // a ragged end is rounded up to the next granule
+        assertEquals(16 * 60, schedule.nextFree(14 * 60 + 50, 15));
+        assertEquals(NOON + 15, new IntervalSchedule().nextFree(NOON + 1, 15));
+        assertEquals(-1, schedule.nextFree(23 * 60 + 30, 45));
+    }
+
+    @Test
+    void granulesCoverTheSlot() {
+        assertEquals(List.of("12:00", "12:15", "12:30", "12:45"), IntervalSchedule.granules("12:00-13:00"));
+        assertEquals(List.of("12:00", "12:15"), IntervalSchedule.granules("12:10-12:20"));
+        assertEquals(List.of("23:45"), IntervalSchedule.granules("23:45-23:59"));
+        assertTrue(IntervalSchedule.granules("13:00-12:00").isEmpty());
+    }
+
+    @Test
+    void parseFormatAndEndOf() {
+        assertArrayEquals(new int[]{NOON, NOON + 90}, IntervalSchedule.parse("12:00-13:30"));
+        assertNull(IntervalSchedule.parse("12:00"));
+        assertNull(IntervalSchedule.parse("12:00-12:00"));
+        assertNull(IntervalSchedule.parse(null));
+        assertEquals("12:00-13:30", IntervalSchedule.format(NOON, NOON + 90));
+
+        assertEquals("13:45", IntervalSchedule.endOf("12:00", 105));
+        assertThrows(IllegalArgumentException.class, () -> IntervalSchedule.endOf("12:00", 0));
+        assertThrows(IllegalArgumentException.class, () -> IntervalSchedule.endOf("23:00", 60));
+    }
+
+    @Test
+    void alignmentIsToTheGranule() {
+        assertTrue(IntervalSchedule.isAligned(NOON));
+        assertTrue(IntervalSchedule.isAligned(NOON + IntervalSchedule.GRANULE_MINUTES));
+        assertFalse(IntervalSchedule.isAligned(NOON + 10));
+    }
+}
@@ -0,0 +1,61 @@
+package com.restaurantback.utils;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    private static final Map<String, AttributeValue> LAST_KEY = Map.of(
+            "booking_id", new AttributeValue().withS("b-42"),
+            "user_email", new AttributeValue().withS("alice@example.com"),
+            "date", new AttributeValue().withS("2024-05-01"));
+
+    @Test
+    void roundTripRestoresTheKeyWithThePinnedValue() {
+        String token = PageCursor.encode(LAST_KEY, "user_email");
+
+        assertEquals(LAST_KEY, PageCursor.decode(token, "user_email", "alice@example.com"));
+    }
+
+    @Test
+    void pinnedAttributeIsNotInTheToken() {
+        String token = PageCursor.encode(LAST_KEY, "user_email");
+        String json = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+
+        assertFalse(json.contains("alice@example.com"));
+        // replaying the token as another user pages through that user's own items
+        assertEquals("bob@example.com", PageCursor.decode(token, "user_email", "bob@example.com").get("user_email").getS());
+    }
+
+    @Test
+    void noFurtherPageMeansNoToken() {
+        assertNull(PageCursor.encode(null, "user_email"));
+        assertNull(PageCursor.encode(Map.of(), "user_email"));
+        assertNull(PageCursor.decode(null, "user_email", "alice@example.com"));
+        assertNull(PageCursor.decode("  ", "user_email", "alice@example.com"));
+    }
+
+    @Test
+    void tamperedTokensAreRejected() {
+        String token = PageCursor.encode(LAST_KEY, "user_email");
+
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token + "!", "user_email", "alice@example.com"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor", "user_email", "alice@example.com"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encodeJson("[1,2]"), "user_email", "alice@example.com"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encodeJson("{}"), "user_email", "alice@example.com"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encodeJson("{\"booking_id\":null}"), "user_email", "alice@example.com"));
+        // a token that tries to choose the pinned attribute itself
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(
+                encodeJson("{\"booking_id\":\"b-42\",\"user_email\":\"bob@example.com\"}"), "user_email", "alice@example.com"));
+    }
+
+    private static String encodeJson(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,59 @@
+package com.restaurantback.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotCatalogTest {
+
+    @Test
+    void openingHoursSpanTheCatalog() {
+        assertEquals(TimeOfDay.parse("10:30"), SlotCatalog.opensAt());
+        assertEquals(TimeOfDay.parse("22:30"), SlotCatalog.closesAt());
+        assertEquals(7, SlotCatalog.size());
+        assertEquals((1 << 7) - 1, SlotCatalog.ALL);
+    }
+
+    @Test
+    void indexOfOnlyKnowsCatalogSlots() {
+        assertEquals(0, SlotCatalog.indexOf("10:30-12:00"));
+        assertEquals(6, SlotCatalog.indexOf("21:00-22:30"));
+        assertEquals(-1, SlotCatalog.indexOf("10:30-11:30"));
+        assertEquals(-1, SlotCatalog.indexOf(null));
+    }
+
+    @Test
+    void overlappingMapsAnyRangeToCatalogBits() {
+        assertEquals(1 << 2, SlotCatalog.overlapping("14:00-15:30"));
+        // 13:30-14:15 reaches into slot 1 (ends 13:45) and slot 2 (starts 14:00)
+        assertEquals((1 << 1) | (1 << 2), SlotCatalog.overlapping("13:30-14:15"));
+        // the gaps between slots belong to no slot
+        assertEquals(0, SlotCatalog.overlapping("12:00-12:15"));
+        assertEquals(SlotCatalog.ALL, SlotCatalog.overlapping("10:00-23:00"));
+        assertEquals(0, SlotCatalog.overlapping("nonsense"));
+    }
+
+    @Test
+    void nearestOrdersByDistanceToTheStart() {
+        int mask = SlotCatalog.ALL & ~(1 << 2);
+
+        assertEquals(List.of("12:15-13:45", "15:45-17:15", "10:30-12:00"),
+                SlotCatalog.nearest(mask, TimeOfDay.parse("14:00"), 3));
+        assertEquals(List.of("21:00-22:30"), SlotCatalog.nearest(mask, TimeOfDay.parse("23:00"), 1));
+        assertTrue(SlotCatalog.nearest(0, TimeOfDay.parse("14:00"), 3).isEmpty());
+    }
+
+    @Test
+    void slotsOfListsTheMaskInCatalogOrder() {
+        assertEquals(List.of("10:30-12:00", "17:30-19:00"), SlotCatalog.slotsOf(1 | (1 << 4)));
+        assertEquals(SlotCatalog.size(), SlotCatalog.slotsOf(SlotCatalog.ALL).size());
+        assertTrue(SlotCatalog.slotsOf(0).isEmpty());
+    }
+
+    @Test
+    void bookableIsEverySlotOnOtherDays() {
+        assertEquals(SlotCatalog.ALL, SlotCatalog.bookable(TimeOfDay.formatDate(TimeOfDay.today() + 1)));
+    }
+}
@@ -0,0 +1,75 @@
+package com.restaurantback.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOfDayTest {
+
+    @Test
+    void parseAcceptsMinutesAndDropsSeconds() {
+        assertEquals(0, TimeOfDay.parse("00:00"));
+        assertEquals(12 * 60 + 30, TimeOfDay.parse("12:30"));
+        assertEquals(23 * 60 + 59, TimeOfDay.parse("23:59"));
+        assertEquals(9 * 60 + 5, TimeOfDay.parse("09:05:59"));
+    }
+
+    @Test
+    void parseRejectsMalformedTimes() {
+        for (String time : new String[]{null, "", "9:30", "24:00", "12:60", "12-30", "ab:cd", "12:30:60", "12:30:5x", "12:30pm"}) {
+            assertThrows(IllegalArgumentException.class, () -> TimeOfDay.parse(time), String.valueOf(time));
+        }
+    }
+
+    @Test
+    void formatPadsToHoursAndMinutes() {
+        assertEquals("00:00", TimeOfDay.format(0));
+        assertEquals("09:05", TimeOfDay.format(9 * 60 + 5));
+        assertEquals("23:59", TimeOfDay.format(TimeOfDay.MINUTES_PER_DAY - 1));
+        for (int minute = 0; minute < TimeOfDay.MINUTES_PER_DAY; minute += 7) {
+            assertEquals(minute, TimeOfDay.parse(TimeOfDay.format(minute)));
+        }
+    }
+
+    @Test
+    void epochDayMatchesLocalDate() {
+        for (String date : new String[]{"1970-01-01", "1969-12-31", "0001-01-01", "1600-02-29", "1999-12-31",
+                "2000-01-01", "2024-03-01", "2100-12-31", "9999-12-31"}) {
+            assertEquals(LocalDate.parse(date).toEpochDay(), TimeOfDay.epochDay(date), date);
+        }
+        LocalDate day = LocalDate.of(1999, 1, 1);
+        while (day.getYear() < 2002) {
+            assertEquals(day.toEpochDay(), TimeOfDay.epochDay(day.toString()), day.toString());
+            assertEquals(day.toString(), TimeOfDay.formatDate(TimeOfDay.epochDay(day.toString())));
+            day = day.plusDays(1);
+        }
+    }
+
+    @Test
+    void leapDaysFollowTheGregorianRules() {
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), TimeOfDay.epochDay("2024-02-29"));
+        assertEquals(LocalDate.of(2000, 2, 29).toEpochDay(), TimeOfDay.epochDay("2000-02-29"));
+        // centuries are only leap years when divisible by 400
+        assertThrows(IllegalArgumentException.class, () -> TimeOfDay.epochDay("1900-02-29"));
+        assertThrows(IllegalArgumentException.class, () -> TimeOfDay.epochDay("2100-02-29"));
+        assertThrows(IllegalArgumentException.class, () -> TimeOfDay.epochDay("2023-02-29"));
+        assertEquals(TimeOfDay.epochDay("1900-03-01") - 1, TimeOfDay.epochDay("1900-02-28"));
+    }
+
+    @Test
+    void epochDayRejectsMalformedDates() {
+        for (String date : new String[]{null, "", "2024-1-01", "2024/01/01", "2024-00-10", "2024-13-01",
+                "2024-04-31", "2024-01-00", "2024-01-32", "20x4-01-01", "2024-01-01T00:00"}) {
+            assertThrows(IllegalArgumentException.class, () -> TimeOfDay.epochDay(date), String.valueOf(date));
+        }
+    }
+
+    @Test
+    void epochMinuteCombinesDayAndMinute() {
+        assertEquals(0, TimeOfDay.epochMinute("1970-01-01", "00:00"));
+        assertEquals(TimeOfDay.MINUTES_PER_DAY + 90, TimeOfDay.epochMinute("1970-01-02", "01:30"));
+        assertTrue(TimeOfDay.epochMinute("2024-12-31", "23:59") < TimeOfDay.epochMinute("2025-01-01", "00:00"));
+    }
+}